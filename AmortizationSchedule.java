@@ -0,0 +1,196 @@
+/**
+ * Period-by-period statement for a TreasuryBillYields investment: the opening
+ * balance, interest and deposit for every compounding period, and the balance
+ * they close on. The schedule is never held in memory. A Cursor works out one
+ * period at a time in a few primitive fields, and writeCsv streams the rows
+ * through one reused buffer, so even a 50-year, daily-compounded statement
+ * costs nothing but the file.
+ *
+ * Deposits follow computeInvestmentValue: one at the end of every period but
+ * the last. The final closing balance therefore matches computeInvestmentValue,
+ * up to rounding, whenever the horizon is a whole number of periods.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class AmortizationSchedule {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LINE_BYTES = 160; // Enough for any row
+    private static final byte[] HEADER = "period,opening,interest,deposit,closing\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final double principal;
+    private final double periodRate; // Interest per period, r/n
+    private final double deposit;
+    private final long periods;
+
+    /**
+     * Describes an investment the same way TreasuryBillYields does.
+     *
+     * @param principal      Initial investment at the beginning of the period
+     * @param rate           Annual interest rate (in decimal form)
+     * @param periodsPerYear Number of times interest is compounded each year
+     * @param totalPeriod    Number of years the investment will accrue over, rounded to whole periods
+     * @param deposit        Amount added to the investment account in each period after the initial one
+     */
+    public AmortizationSchedule(double principal, double rate, double periodsPerYear, double totalPeriod,
+            double deposit) {
+        if (periodsPerYear <= 0 || totalPeriod < 0) {
+            throw new IllegalArgumentException("Needs a positive frequency and a horizon of at least zero");
+        }
+        this.principal = principal;
+        this.periodRate = rate / periodsPerYear;
+        this.deposit = deposit;
+        this.periods = Math.round(periodsPerYear * totalPeriod);
+    }
+
+    /**
+     * @return The number of periods in the schedule
+     */
+    public long periods() {
+        return periods;
+    }
+
+    /**
+     * @return A cursor before the first period
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Walks the schedule one period at a time. Call next to move to a period,
+     * then read its amounts.
+     */
+    public class Cursor {
+        private long period;
+        private double opening;
+        private double interest;
+        private double deposited;
+        private double closing = principal;
+        private double totalInterest;
+
+        /**
+         * Moves to the next period.
+         *
+         * @return Whether there was another period
+         */
+        public boolean next() {
+            if (period == periods) {
+                return false;
+            }
+            period++;
+            opening = closing;
+            interest = opening * periodRate;
+            deposited = period < periods ? deposit : 0; // No deposit in the last period
+            closing = opening + interest + deposited;
+            totalInterest += interest;
+            return true;
+        }
+
+        /**
+         * @return The current period, from 1
+         */
+        public long period() {
+            return period;
+        }
+
+        public double opening() {
+            return opening;
+        }
+
+        public double interest() {
+            return interest;
+        }
+
+        public double deposit() {
+            return deposited;
+        }
+
+        public double closing() {
+            return closing;
+        }
+
+        /**
+         * @return The interest earned up to and including the current period
+         */
+        public double totalInterest() {
+            return totalInterest;
+        }
+    }
+
+    /**
+     * Writes the whole schedule as CSV, with amounts to 2 d.p.
+     *
+     * @param output The file to write, replaced if it exists
+     * @return The number of periods written
+     * @throws IOException If the file cannot be written
+     */
+    public long writeCsv(Path output) throws IOException {
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return writeCsv(out);
+        }
+    }
+
+    /**
+     * Writes the whole schedule as CSV to an open channel.
+     *
+     * @param out The channel to write to
+     * @return The number of periods written
+     * @throws IOException If the channel cannot be written
+     */
+    public long writeCsv(FileChannel out) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes); // Reused for every batch of rows
+        int length = 0;
+        System.arraycopy(HEADER, 0, bytes, 0, HEADER.length);
+        length += HEADER.length;
+
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            if (length > BUFFER_SIZE - LINE_BYTES) {
+                flush(out, buffer, length);
+                length = 0;
+            }
+            length = putLong(bytes, length, cursor.period());
+            bytes[length++] = ',';
+            length = InvestmentGrid.putAmount(bytes, length, cursor.opening());
+            bytes[length++] = ',';
+            length = InvestmentGrid.putAmount(bytes, length, cursor.interest());
+            bytes[length++] = ',';
+            length = InvestmentGrid.putAmount(bytes, length, cursor.deposit());
+            bytes[length++] = ',';
+            length = InvestmentGrid.putAmount(bytes, length, cursor.closing());
+            bytes[length++] = '\n';
+        }
+        flush(out, buffer, length);
+        return periods;
+    }
+
+    private static int putLong(byte[] out, int offset, long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer, int length) throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
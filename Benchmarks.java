@@ -0,0 +1,223 @@
+/**
+ * Micro-benchmarks for the hot methods of the five programs. Each benchmark is
+ * warmed up, then timed over several fixed-length iterations, and reports its
+ * throughput along with the bytes it allocates per call, read from the JVM's
+ * per-thread allocation counter.
+ *
+ * Usage: java Benchmarks [name filter]
+ * Run with the same JVM and flags when comparing a change against a baseline.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import Taxes.IncomeTaxCalculator;
+
+public class Benchmarks {
+    private static final long WARMUP_NANOS = 1_000_000_000L; // 1 second of warm-up
+    private static final long ITERATION_NANOS = 1_000_000_000L; // Length of each timed iteration
+    private static final int ITERATIONS = 5; // Number of timed iterations
+    private static final int INPUTS = 1024; // Inputs per benchmark, cycled through, power of two
+
+    private static volatile long sink; // Results are folded in here so the JIT cannot drop the work
+
+    /**
+     * A benchmarked call. Returns something derived from the result so the call
+     * cannot be optimised away.
+     */
+    interface Operation {
+        long run(int input);
+    }
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        Random random = new Random(42); // Fixed seed so runs see the same inputs
+
+        // ConnectFour: legacy char[][] boards taken from random games
+        char[][][] boards = new char[INPUTS][][];
+        for (int i = 0; i < INPUTS; i++) {
+            boards[i] = randomLegacyBoard(random);
+        }
+
+        // Hangman: words, their star strings, and a word list to remove from
+        String[] words = new String[INPUTS];
+        String[] stars = new String[INPUTS];
+        char[] guesses = new char[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            words[i] = randomWord(random);
+            stars[i] = Hangman.createStars(words[i].length());
+            guesses[i] = (char) ('a' + random.nextInt(26));
+        }
+
+        // Taxes and T-bills: incomes and investment scenarios
+        double[] incomes = new double[INPUTS];
+        double[] principals = new double[INPUTS];
+        double[] rates = new double[INPUTS];
+        double[] periods = new double[INPUTS];
+        double[] years = new double[INPUTS];
+        double[] deposits = new double[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            incomes[i] = random.nextDouble() * 100_000;
+            principals[i] = 100 + random.nextDouble() * 100_000;
+            rates[i] = 0.05 + random.nextDouble() * 0.3;
+            periods[i] = new int[] { 1, 4, 12, 52, 365 }[random.nextInt(5)];
+            years[i] = 1 + random.nextInt(30);
+            deposits[i] = random.nextDouble() * 1000;
+        }
+
+        run(filter, "ConnectFour.getWinner", i -> ConnectFour.getWinner(boards[i]).length());
+        run(filter, "ConnectFour.isBoardFilled", i -> ConnectFour.isBoardFilled(boards[i]) ? 1 : 0);
+        int[][] largeGames = new int[INPUTS][];
+        for (int i = 0; i < INPUTS; i++) {
+            largeGames[i] = randomGame(random, new ConnectKBoard(10, 12, 5));
+        }
+        ConnectKBoard large = new ConnectKBoard(10, 12, 5);
+        run(filter, "ConnectKBoard.playAndCheck (10x12 connect-5 game)", i -> {
+            large.reset();
+            int outcome = 0;
+            for (int column : largeGames[i]) {
+                outcome = large.playAndCheck(column);
+            }
+            return outcome;
+        });
+        run(filter, "Hangman.updateStars", i -> Hangman.updateStars(words[i], stars[i], guesses[i]).length());
+        run(filter, "Hangman.createStars", i -> Hangman.createStars(words[i].length()).length());
+        run(filter, "Hangman.updateArray", i -> Hangman.updateArray(words, words[i]).length);
+        run(filter, "HangmanState.guess (whole game)", i -> {
+            HangmanState state = new HangmanState(words[i], 26);
+            for (char letter = 'a'; !state.isOver(); letter++) {
+                state.guess(letter);
+            }
+            return state.missed();
+        });
+        run(filter, "IncomeTaxCalculator.IncomeTax",
+                i -> Double.doubleToRawLongBits(IncomeTaxCalculator.IncomeTax(incomes[i])));
+        long[] grossPesewas = new long[INPUTS];
+        long[] netPesewas = new long[INPUTS];
+        long[] taxPesewas = new long[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            grossPesewas[i] = Math.round(incomes[i] * 100);
+        }
+        run(filter, "IncomeTaxCalculator.IncomeTax (bulk, per 1024)", i -> {
+            IncomeTaxCalculator.IncomeTax(grossPesewas, netPesewas, taxPesewas);
+            return netPesewas[i];
+        });
+        run(filter, "TreasuryBillYields.computeInvestmentValue",
+                i -> Double.doubleToRawLongBits(TreasuryBillYields.computeInvestmentValue(principals[i], rates[i],
+                        periods[i], years[i], deposits[i])));
+        run(filter, "TreasuryBillYields.computeGeneralValue", i -> Double.doubleToRawLongBits(
+                TreasuryBillYields.computeGeneralValue(principals[i], rates[i], periods[i], years[i])));
+    }
+
+    /**
+     * Warms up and times one benchmark, then prints its throughput and
+     * allocation rate.
+     *
+     * @param filter    Only benchmarks whose name contains this are run
+     * @param name      The benchmark name
+     * @param operation The call to measure
+     */
+    static void run(String filter, String name, Operation operation) {
+        if (!name.contains(filter)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        measure(operation, WARMUP_NANOS);
+
+        double best = 0;
+        double total = 0;
+        long calls = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long elapsed = 0;
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            long start = System.nanoTime();
+            long count = measure(operation, ITERATION_NANOS);
+            long nanos = System.nanoTime() - start;
+            double opsPerSecond = count * 1e9 / nanos;
+            best = Math.max(best, opsPerSecond);
+            total += opsPerSecond;
+            calls += count;
+            elapsed += nanos;
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        System.out.printf("%-45s %,15.0f ops/s (best %,.0f)  %8.1f B/op  %8.1f MB/s alloc\n", name,
+                total / ITERATIONS, best, (double) allocated / calls, allocated * 1e3 / elapsed);
+    }
+
+    /**
+     * Calls the operation in batches until the time is up.
+     *
+     * @return The number of calls made
+     */
+    private static long measure(Operation operation, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long count = 0;
+        long result = 0;
+        do {
+            for (int i = 0; i < INPUTS; i++) {
+                result += operation.run(i);
+            }
+            count += INPUTS;
+        } while (System.nanoTime() < deadline);
+        sink = result;
+        return count;
+    }
+
+    /**
+     * Builds a ConnectFour.createBoard style board from a random game.
+     */
+    private static char[][] randomLegacyBoard(Random random) {
+        char[][] board = ConnectFour.createBoard();
+        ConnectFourBoard engine = new ConnectFourBoard();
+        int moves = random.nextInt(30);
+        for (int m = 0; m < moves; m++) {
+            int column = random.nextInt(ConnectFourBoard.WIDTH);
+            if (!engine.canPlay(column)) {
+                continue;
+            }
+            char playChar = engine.playerToMove() == 0 ? 'R' : 'Y';
+            int row = ConnectFour.getRowNum(board, ConnectFour.convertColumn(column), "");
+            board[row][ConnectFour.convertColumn(column)] = playChar;
+            if (engine.playAndCheck(column) != ConnectFourBoard.OUTCOME_NONE) {
+                break;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Plays random moves on an empty board until the game ends.
+     *
+     * @return The columns played
+     */
+    private static int[] randomGame(Random random, ConnectKBoard board) {
+        int[] columns = new int[board.rows() * board.columns()];
+        int moves = 0;
+        int outcome = ConnectFourBoard.OUTCOME_NONE;
+        while (outcome == ConnectFourBoard.OUTCOME_NONE) {
+            int column = random.nextInt(board.columns());
+            if (board.canPlay(column)) {
+                columns[moves++] = column;
+                outcome = board.playAndCheck(column);
+            }
+        }
+        return java.util.Arrays.copyOf(columns, moves);
+    }
+
+    /**
+     * @return A lower-case word of 4 to 12 letters
+     */
+    private static String randomWord(Random random) {
+        char[] letters = new char[4 + random.nextInt(9)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
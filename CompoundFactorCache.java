@@ -0,0 +1,139 @@
+/**
+ * Bounded, lock-free cache of compound factors (1 + r/n)^(nt), keyed by rate,
+ * frequency and horizon. Quotes tend to repeat the same few rate and term
+ * combinations, and the pow behind each factor is the most expensive part of
+ * TreasuryBillYields, so each distinct factor is worked out once and then
+ * shared.
+ *
+ * The cache is a fixed table of sets of two entries, built like
+ * TranspositionTable so that lookups take no lock and allocate nothing. Each
+ * entry is five longs: the bits of the rate, frequency, horizon and factor,
+ * and a check word mixing all four. A reader ignores an entry whose check
+ * does not match, so an entry torn by two threads writing at once is just a
+ * miss. When a set is full, its least recently used entry is replaced.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+public class CompoundFactorCache {
+    private static final int LONGS_PER_ENTRY = 5;
+    private static final int WAYS = 2; // Entries per set
+    private static final long CHECK_SALT = 0x5DEECE66DL; // So an empty entry never checks out
+
+    /**
+     * The cache TreasuryBillYields uses.
+     */
+    public static final CompoundFactorCache SHARED = new CompoundFactorCache(1 << 16);
+
+    private final long[] entries; // rate, periodsPerYear, totalPeriod, factor, check for each entry
+    private final byte[] recent; // The way most recently used in each set
+    private final int setMask; // Number of sets - 1, the set count is a power of two
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity The most factors to hold, rounded down to a power of two; at least 2
+     */
+    public CompoundFactorCache(int capacity) {
+        int sets = Integer.highestOneBit(Math.max(capacity / WAYS, 1));
+        this.entries = new long[sets * WAYS * LONGS_PER_ENTRY];
+        this.recent = new byte[sets];
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * Works out (1 + r/n)^(nt) without the cache, for one-off factors such as
+     * a sweep over many terms.
+     *
+     * @param rate           Annual interest rate (in decimal form)
+     * @param periodsPerYear Number of times interest is compounded each year
+     * @param totalPeriod    Number of periods the investment will accrue over
+     * @return The compound factor
+     */
+    public static double compute(double rate, double periodsPerYear, double totalPeriod) {
+        return Math.pow((1 + (rate / periodsPerYear)), (periodsPerYear * totalPeriod));
+    }
+
+    /**
+     * Returns (1 + r/n)^(nt), working it out only if it is not cached.
+     *
+     * @param rate           Annual interest rate (in decimal form)
+     * @param periodsPerYear Number of times interest is compounded each year
+     * @param totalPeriod    Number of periods the investment will accrue over
+     * @return The compound factor
+     */
+    public double factor(double rate, double periodsPerYear, double totalPeriod) {
+        long r = Double.doubleToRawLongBits(rate);
+        long n = Double.doubleToRawLongBits(periodsPerYear);
+        long t = Double.doubleToRawLongBits(totalPeriod);
+        int set = set(r, n, t);
+
+        for (int way = 0; way < WAYS; way++) {
+            int base = (set * WAYS + way) * LONGS_PER_ENTRY;
+            long value = entries[base + 3];
+            if (entries[base] == r && entries[base + 1] == n && entries[base + 2] == t
+                    && entries[base + 4] == check(r, n, t, value)) {
+                if (recent[set] != way) {
+                    recent[set] = (byte) way;
+                }
+                return Double.longBitsToDouble(value);
+            }
+        }
+
+        // Work it out and replace the least recently used entry of the set. Two threads may both do
+        // so, with the same result
+        double factor = compute(rate, periodsPerYear, totalPeriod);
+        int way = 1 - recent[set];
+        int base = (set * WAYS + way) * LONGS_PER_ENTRY;
+        long value = Double.doubleToRawLongBits(factor);
+        entries[base] = r;
+        entries[base + 1] = n;
+        entries[base + 2] = t;
+        entries[base + 3] = value;
+        entries[base + 4] = check(r, n, t, value);
+        recent[set] = (byte) way;
+        return factor;
+    }
+
+    /**
+     * @return The most factors the cache can hold
+     */
+    public int capacity() {
+        return (setMask + 1) * WAYS;
+    }
+
+    /**
+     * @return The number of factors held
+     */
+    public int size() {
+        int size = 0;
+        for (int base = 0; base < entries.length; base += LONGS_PER_ENTRY) {
+            if (entries[base + 4] == check(entries[base], entries[base + 1], entries[base + 2], entries[base + 3])) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Drops every cached factor.
+     */
+    public void clear() {
+        java.util.Arrays.fill(entries, 0);
+    }
+
+    private static long check(long r, long n, long t, long value) {
+        return r ^ Long.rotateLeft(n, 21) ^ Long.rotateLeft(t, 42) ^ Long.rotateLeft(value, 7) ^ CHECK_SALT;
+    }
+
+    /**
+     * Mixes the key bits before masking. Round numbers such as 12.0 or 0.5
+     * differ only in their top bits, so those are folded down first.
+     */
+    private int set(long r, long n, long t) {
+        long h = (r * 31 + n) * 31 + t;
+        h ^= h >>> 32;
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & setMask;
+    }
+}
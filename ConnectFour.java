@@ -6,6 +6,8 @@ disks into a seven-column, six-row vertically suspended grid
  * @author Ruvarashe Sadya
  * @version 1.0
 */
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.Random;
 
@@ -15,69 +17,125 @@ public class ConnectFour {
     /**
      * Main method to run the Connect Four game.
      *
-     * @param args Command-line arguments (not used)
+     * @param args Pass "computer" to play against the computer, which takes the
+     *             yellow disks. An optional second argument sets its thinking time in
+     *             milliseconds, and an optional third names an opening book file.
+     *             Pass a size such as "10x12" (rows x columns) and optionally a win
+     *             length to play a larger variant between two people
+     * @throws IOException If the opening book cannot be read
      */
-    public static void main(String args[]) {
+    public static void main(String args[]) throws IOException {
 
-        char[][] board = createBoard(); // Creates the connect 4 board
+        if (args.length > 0 && args[0].matches("\\d+x\\d+")) {
+            String[] size = args[0].split("x");
+            int winLength = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+            playVariant(new ConnectKBoard(Integer.parseInt(size[0]), Integer.parseInt(size[1]), winLength));
+            return;
+        }
+
+        ConnectFourBoard board = new ConnectFourBoard(); // Bitboard engine holding the game state
 
-        displayBoard(board); // Displays the board without anything yet
+        // Set up the computer opponent if asked for
+        ConnectFourSolver solver = null;
+        long thinkMillis = 5; // Time the computer may spend on a move
+        if (args.length > 0 && args[0].equals("computer")) {
+            solver = new ConnectFourSolver();
+            if (args.length > 1) {
+                thinkMillis = Long.parseLong(args[1]);
+            }
+            if (args.length > 2) {
+                solver.setOpeningBook(ConnectFourBook.open(Paths.get(args[2])));
+            }
+        }
 
         // Select random color between red and yellow as the start color
         String promptColor = setPromptColor();
 
-        int columnNum = getColumnNum(promptColor); // Get the column selection from the user
-        columnNum = convertColumn(columnNum); // Change user column to usable index considering dashes
-
-        // Set start character in accordance with the prompt color
+        // Set start character in accordance with the prompt color. The engine calls the
+        // first player 0, so symbols[0] is the start character
         char playChar = setPlayChar(promptColor);
+        char[] symbols = { playChar, changePlayChar(playChar) };
 
-        // Conditions for checking and playing the game
-        boolean winMade = false;
+        ConnectFourView.displayBoard(board, symbols); // Displays the board without anything yet
 
-        // Has to run while the winning play has not been made
-        while (!winMade) {
+        // Has to run until a win or a draw ends the game
+        while (true) {
 
-            // get the row number for the blank spaces ALSO plays the game
-            int rowNum = getRowNum(board, columnNum, promptColor);
+            int columnNum;
+            if (solver != null && promptColor.equals("yellow")) {
+                // Let the computer pick its column
+                columnNum = solver.solve(board, thinkMillis).column;
+                System.out.println(String.format("Computer drops a %s disk at column %d", promptColor, columnNum));
+            } else {
+                columnNum = getColumnNum(promptColor); // Get the column selection from the user
+            }
 
-            // If the rowNum is negative, tell the user to pick a new column
-            if (rowNum < 0) {
+            // If the column is full, tell the user to pick a new column
+            if (!board.canPlay(columnNum)) {
                 System.out.println("Column is full. Please choose another column.");
-                columnNum = getColumnNum(promptColor);
-                columnNum = convertColumn(columnNum);
                 continue;
             }
 
-            // put playChar in the board array
-            board[rowNum][columnNum] = playChar;
+            int outcome = board.playAndCheck(columnNum); // Drop the disc and check the lines through it
 
             // Show the new board after each change
-            displayBoard(board);
-
-            // Check for win either horizontally, vertically or diagonally
-            String winner = getWinner(board);
+            ConnectFourView.displayBoard(board, symbols);
 
-            if (winner == "") {
-                // Check if there was a draw i.e that the board is filled and noone won
-                if (isBoardFilled(board)) {
-                    System.out.println("Boo-hoo! You Drew!");
-                    break;
-                }
-            } else if (winner != "") {
-                // Check if we do have a winner and the game is over
-                System.out.println("The " + winner + " player won");
+            // Check for a win through the new disc, or a draw i.e that the board is filled and
+            // noone won
+            if (outcome == ConnectFourBoard.OUTCOME_WIN) {
+                System.out.println("The " + promptColor + " player won");
+                break;
+            } else if (outcome == ConnectFourBoard.OUTCOME_DRAW) {
+                System.out.println("Boo-hoo! You Drew!");
                 break;
             }
 
             // Change values so as to give the other player a turn
             promptColor = changePromptColor(promptColor); // Change the promptColor after a play
-            playChar = changePlayChar(playChar); // Change the playChar after a play
-            columnNum = getColumnNum(promptColor); // Need user to be reprompted for column
-            columnNum = convertColumn(columnNum); // Change user column to usable index considering dashes
         }
 
-        scanner.close();
+        if (scanner != null) {
+            scanner.close();
+        }
+    }
+
+    /**
+     * Runs a game between two people on a board of any size, with the same
+     * prompts as the standard game.
+     *
+     * @param board The empty board to play on
+     */
+    private static void playVariant(ConnectKBoard board) {
+        String promptColor = setPromptColor();
+        char playChar = setPlayChar(promptColor);
+        char[] symbols = { playChar, changePlayChar(playChar) };
+        System.out.println(String.format("Connect %d on %d rows and %d columns", board.winLength(), board.rows(),
+                board.columns()));
+        ConnectFourView.displayBoard(board, symbols);
+
+        while (true) {
+            int columnNum = getColumnNum(promptColor, board.columns());
+            if (!board.canPlay(columnNum)) {
+                System.out.println("Column is full. Please choose another column.");
+                continue;
+            }
+
+            int outcome = board.playAndCheck(columnNum);
+            ConnectFourView.displayBoard(board, symbols);
+            if (outcome == ConnectFourBoard.OUTCOME_WIN) {
+                System.out.println("The " + promptColor + " player won");
+                break;
+            } else if (outcome == ConnectFourBoard.OUTCOME_DRAW) {
+                System.out.println("Boo-hoo! You Drew!");
+                break;
+            }
+            promptColor = changePromptColor(promptColor);
+        }
+
+        if (scanner != null) {
+            scanner.close();
+        }
     }
 
     /**
@@ -86,9 +144,20 @@ public class ConnectFour {
      * @return A 2D char array representing the game board
      */
     public static char[][] createBoard() {
+        return createBoard(ConnectFourBoard.HEIGHT, ConnectFourBoard.WIDTH);
+    }
+
+    /**
+     * Creates a new game board of any size.
+     *
+     * @param rows    The number of rows
+     * @param columns The number of columns
+     * @return A 2D char array representing the game board
+     */
+    public static char[][] createBoard(int rows, int columns) {
 
         // Initialize a 2D array to represent the game board
-        char[][] board = new char[6][16]; // made columns x2 because of the blanks I made
+        char[][] board = new char[rows][2 * columns + 2]; // made columns x2 because of the blanks I made
 
         // Define characters for vertical bar and blank space
         char dashUp = '|';
@@ -115,18 +184,19 @@ public class ConnectFour {
      * @param board The game board to display
      */
     public static void displayBoard(char[][] board) {
-        // Print the game board
+        // Build the whole frame first and print it in one go, rather than a print per char
+        int width = board[0].length;
+        char[] frame = new char[board.length * (width + 1) + width - 1];
+        int length = 0;
         for (int row = 0; row < board.length; row++) {
-            for (int column = 0; column < board[row].length; column++) {
-                System.out.print(board[row][column]);
-            }
-            System.out.println();
+            System.arraycopy(board[row], 0, frame, length, width);
+            length += width;
+            frame[length++] = '\n';
         }
 
         // Draw horizontal base line
-        String baseLine = "---------------";
-        System.out.print(baseLine);
-        System.out.println();
+        java.util.Arrays.fill(frame, length, frame.length, '-');
+        System.out.println(frame);
     }
 
     /**
@@ -136,16 +206,30 @@ public class ConnectFour {
      * @return The column number chosen by the user
      */
     public static int getColumnNum(String startColor) {
-        // Asks user for entry of integers between 1-6
-        scanner = new Scanner(System.in);
+        return getColumnNum(startColor, ConnectFourBoard.WIDTH);
+    }
+
+    /**
+     * Asks the user to input a column number on a board with any number of columns.
+     *
+     * @param startColor The color of the current player
+     * @param columns    The number of columns on the board
+     * @return The column number chosen by the user
+     */
+    public static int getColumnNum(String startColor, int columns) {
+        // Asks user for entry of integers between 1-6, reusing one Scanner so input
+        // buffered by an earlier prompt is not lost
+        if (scanner == null) {
+            scanner = new Scanner(System.in);
+        }
         int columnNum; // User column selection
         do {
-            System.out.print(String.format("Drop a %s disk at column (0-6): ", startColor));
+            System.out.print(String.format("Drop a %s disk at column (0-%d): ", startColor, columns - 1));
             columnNum = scanner.nextInt();
-            if (columnNum >= 0 && columnNum <= 6) {
+            if (columnNum >= 0 && columnNum < columns) {
                 break;
             } else {
-                System.out.println("Please enter a number between 0 and 6, inclusive!");
+                System.out.println(String.format("Please enter a number between 0 and %d, inclusive!", columns - 1));
             }
         } while (true);
 
@@ -230,7 +314,7 @@ public class ConnectFour {
      * @return The row number where the player's character will be placed
      */
     public static int getRowNum(char[][] board, int columnNum, String promptColor) {
-        int rowNum = 5; // Because we start counting rows from the top at therefor bottom is [5]
+        int rowNum = board.length - 1; // Because we start counting rows from the top at therefor bottom is last
         while (rowNum >= 0 && board[rowNum][columnNum] != ' ') {
             rowNum -= 1; // decrease rowNum by 1 to move up
         }
@@ -246,10 +330,10 @@ public class ConnectFour {
     public static boolean isBoardFilled(char[][] board) {
 
         // Starting with the bottom most row and first column
-        for (int row = 5; row >= 0; row--) {
-            // Have to subtract 1 from the length because the way I printed my board, the
+        for (int row = board.length - 1; row >= 0; row--) {
+            // Have to subtract 2 from the length because the way I printed my board, the
             // last column is space chars
-            for (int col = 0; col < 14; col++) {
+            for (int col = 0; col < board[row].length - 2; col++) {
                 char chars = board[row][col];
                 if (chars == ' ') {
                     // means the index is empty
@@ -269,16 +353,18 @@ public class ConnectFour {
      *         string if there is no winner yet
      */
     public static String getWinner(char[][] board) {
-        // Check horizontal wins
+        // Check horizontal wins, returning as soon as one is found
         String winner = "";
+        // The last char of each row is a blank, so a line can end at length - 3 at most
+        int lastCell = board[0].length - 3;
         for (int i = 0; i < board.length; i++) {
-            for (int j = 1; j < board[0].length; j = j + 2) {
+            for (int j = 1; j + 6 <= lastCell; j = j + 2) {
                 if (board[i][j] == 'R' && board[i][j + 2] == 'R' && board[i][j + 4] == 'R'
                         && board[i][j + 6] == 'R') {
-                    winner = "red";
+                    return "red";
                 } else if (board[i][j] == 'Y' && board[i][j + 2] == 'Y' && board[i][j + 4] == 'Y'
                         && board[i][j + 6] == 'Y') {
-                    winner = "yellow";
+                    return "yellow";
                 }
 
             }
@@ -290,40 +376,41 @@ public class ConnectFour {
                 if (i - 3 >= 0) {
                     if (board[i][j] == 'R' && board[i - 1][j] == 'R' && board[i - 2][j] == 'R'
                             && board[i - 3][j] == 'R') {
-                        winner = "red";
+                        return "red";
                     } else if (board[i][j] == 'Y' && board[i - 1][j] == 'Y' && board[i - 2][j] == 'Y'
                             && board[i - 3][j] == 'Y') {
-                        winner = "yellow";
+                        return "yellow";
                     }
                 }
             }
         }
 
-        // Check diagonal wins (/)
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 9; j = j + 2) {
+        // Check diagonal wins (/), going up from the lowest disc so rows i - 1 to i - 3
+        // stay on the board
+        for (int i = 3; i < board.length; i++) {
+            for (int j = 0; j + 7 <= lastCell; j = j + 2) {
                 if (board[i][j + 1] != ' ') { // the space next right up shouldn't be empty
                     if (board[i][j + 1] == 'R' && board[i - 1][j + 3] == 'R' && board[i - 2][j + 5] == 'R'
                             && board[i - 3][j + 7] == 'R') {
-                        winner = "red";
+                        return "red";
                     } else if (board[i][j + 1] == 'Y' && board[i - 1][j + 3] == 'Y' && board[i - 2][j + 5] == 'Y'
                             && board[i - 3][j + 7] == 'Y') {
-                        winner = "yellow";
+                        return "yellow";
                     }
                 }
             }
         }
 
         // Check diagonal wins (\)
-        for (int i = 0; i < 3; i++) { // 3 because don't want it giving an index out of bounds when calc
-            for (int j = 0; j < 9; j = j + 2) { // 9 as reason as above
+        for (int i = 0; i + 3 < board.length; i++) { // Don't want it giving an index out of bounds when calc
+            for (int j = 0; j + 7 <= lastCell; j = j + 2) { // Same reason as above
                 if (board[i][j + 1] != ' ') { // the space next left up shouldn't be empty
                     if (board[i][j + 1] == 'R' && board[i + 1][j + 3] == 'R' && board[i + 2][j + 5] == 'R'
                             && board[i + 3][j + 7] == 'R') {
-                        winner = "red";
+                        return "red";
                     } else if (board[i][j + 1] == 'Y' && board[i + 1][j + 3] == 'Y' && board[i + 2][j + 5] == 'Y'
                             && board[i + 3][j + 7] == 'Y') {
-                        winner = "yellow";
+                        return "yellow";
                     }
                 }
             }
@@ -0,0 +1,364 @@
+/**
+ * Bitboard representation of a Connect Four position. Each player's discs are
+ * packed into a single long, so a move, an undo and a four-in-a-row check are
+ * all a handful of bit operations.
+ *
+ * Bit layout: every column owns HEIGHT + 1 consecutive bits, starting from the
+ * bottom row. The extra bit on top of each column is always empty, which keeps
+ * the shifts used for win detection from wrapping into the next column.
+ *
+ * <pre>
+ *  6 13 20 27 34 41 48   (sentinel row, always empty)
+ *  5 12 19 26 33 40 47   (top row)
+ *  4 11 18 25 32 39 46
+ *  3 10 17 24 31 38 45
+ *  2  9 16 23 30 37 44
+ *  1  8 15 22 29 36 43
+ *  0  7 14 21 28 35 42   (bottom row)
+ * </pre>
+ *
+ * The engine knows nothing about display characters; see ConnectFourView for
+ * rendering. For other board sizes and line lengths, see ConnectKBoard.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+public class ConnectFourBoard implements ConnectGrid {
+    public static final int WIDTH = 7; // Number of columns
+    public static final int HEIGHT = 6; // Number of rows
+    public static final int SIZE = WIDTH * HEIGHT; // Number of cells on the board
+
+    // Outcome codes returned by playAndCheck, from the point of view of the player who moved
+    public static final int OUTCOME_NONE = 0; // The game goes on
+    public static final int OUTCOME_WIN = 1; // The move made four in a row
+    public static final int OUTCOME_DRAW = 2; // The move filled the board without a win
+
+    static final int COLUMN_BITS = HEIGHT + 1; // Bits used per column, including the sentinel
+
+    // Bit distance of one step along each line: vertical, horizontal, diagonal (/), diagonal (\)
+    private static final int[] DIRECTIONS = { 1, COLUMN_BITS, COLUMN_BITS + 1, COLUMN_BITS - 1 };
+
+    static final long BOTTOM_MASK = bottomMask(); // The bottom cell of every column
+    static final long BOARD_MASK = BOTTOM_MASK * ((1L << HEIGHT) - 1); // Every playable cell
+
+    private final long[] discs = new long[2]; // discs[p] holds the discs of player p
+    private final int[] heights = new int[WIDTH]; // Number of discs in each column
+    private final int[] history = new int[SIZE]; // Columns played so far, used by undo
+    private int moves; // Number of discs on the board
+
+    /**
+     * Creates an empty board. Player 0 moves first.
+     */
+    public ConnectFourBoard() {
+    }
+
+    /**
+     * Creates a copy of another board, including its move history.
+     *
+     * @param other The board to copy
+     */
+    public ConnectFourBoard(ConnectFourBoard other) {
+        discs[0] = other.discs[0];
+        discs[1] = other.discs[1];
+        System.arraycopy(other.heights, 0, heights, 0, WIDTH);
+        System.arraycopy(other.history, 0, history, 0, other.moves);
+        moves = other.moves;
+    }
+
+    /**
+     * Empties the board so it can be reused for a new game.
+     */
+    public void reset() {
+        discs[0] = 0;
+        discs[1] = 0;
+        java.util.Arrays.fill(heights, 0);
+        moves = 0;
+    }
+
+    /**
+     * Checks whether a disc can still be dropped into a column.
+     *
+     * @param column The column, between 0 and WIDTH - 1
+     * @return True if the column is not full
+     */
+    public boolean canPlay(int column) {
+        return heights[column] < HEIGHT;
+    }
+
+    /**
+     * Drops a disc for the player to move into a column. The caller must check
+     * canPlay first.
+     *
+     * @param column The column, between 0 and WIDTH - 1
+     */
+    public void play(int column) {
+        discs[moves & 1] |= 1L << (column * COLUMN_BITS + heights[column]);
+        heights[column]++;
+        history[moves++] = column;
+    }
+
+    /**
+     * Drops a disc for the player to move and reports how the game stands for
+     * that player. Only the four lines through the new disc are checked, so the
+     * cost does not depend on how full the board is.
+     *
+     * @param column The column, between 0 and WIDTH - 1
+     * @return OUTCOME_WIN, OUTCOME_DRAW or OUTCOME_NONE
+     */
+    public int playAndCheck(int column) {
+        int player = moves & 1;
+        int index = column * COLUMN_BITS + heights[column];
+        play(column);
+
+        if (completesFour(discs[player], index)) {
+            return OUTCOME_WIN;
+        } else if (moves == SIZE) {
+            return OUTCOME_DRAW;
+        }
+        return OUTCOME_NONE;
+    }
+
+    /**
+     * Takes back the last move played.
+     */
+    public void undo() {
+        int column = history[--moves];
+        heights[column]--;
+        discs[moves & 1] &= ~(1L << (column * COLUMN_BITS + heights[column]));
+    }
+
+    /**
+     * @return The player whose turn it is, 0 or 1
+     */
+    public int playerToMove() {
+        return moves & 1;
+    }
+
+    /**
+     * @return The number of discs on the board
+     */
+    public int moveCount() {
+        return moves;
+    }
+
+    /**
+     * @param index The move number, from 0 for the first move
+     * @return The column that move was played in
+     */
+    public int moveAt(int index) {
+        return history[index];
+    }
+
+    /**
+     * @param column The column, between 0 and WIDTH - 1
+     * @return The number of discs in the column
+     */
+    public int height(int column) {
+        return heights[column];
+    }
+
+    /**
+     * @param player The player, 0 or 1
+     * @return The bitboard holding that player's discs
+     */
+    public long discs(int player) {
+        return discs[player];
+    }
+
+    /**
+     * @return A bitboard of every occupied cell
+     */
+    long mask() {
+        return discs[0] | discs[1];
+    }
+
+    /**
+     * Returns a key that identifies the position uniquely. Adding the occupied
+     * cells to the discs of the player to move sets a marker bit just above the
+     * top disc of each column, so no two positions share a key.
+     *
+     * @return The position key, below 2^49
+     */
+    public long key() {
+        return discs[moves & 1] + mask();
+    }
+
+    /**
+     * @return A bitboard with the next free cell of every column that is not full
+     */
+    long possibleMoves() {
+        return (mask() + BOTTOM_MASK) & BOARD_MASK;
+    }
+
+    /**
+     * @param column The column, between 0 and WIDTH - 1
+     * @return A bitboard of every cell in the column
+     */
+    static long columnMask(int column) {
+        return ((1L << HEIGHT) - 1) << (column * COLUMN_BITS);
+    }
+
+    /**
+     * Checks whether the player to move would win by dropping a disc into a
+     * column. The caller must check canPlay first.
+     *
+     * @param column The column, between 0 and WIDTH - 1
+     * @return True if the move makes four in a row
+     */
+    public boolean isWinningMove(int column) {
+        int index = column * COLUMN_BITS + heights[column];
+        return completesFour(discs[moves & 1] | (1L << index), index);
+    }
+
+    /**
+     * Returns the empty cells that would complete four in a row for a player if
+     * they held a disc there, whether or not the cell can be played yet.
+     *
+     * @param player The player, 0 or 1
+     * @return A bitboard of the player's winning cells
+     */
+    long winningCells(int player) {
+        return winningCells(discs[player], mask());
+    }
+
+    /**
+     * Returns the empty cells that would complete four in a row for a bitboard.
+     *
+     * @param position The discs of one player
+     * @param mask     Every occupied cell
+     * @return A bitboard of the winning cells
+     */
+    static long winningCells(long position, long mask) {
+        // Vertical: three discs straight below the cell
+        long r = (position << 1) & (position << 2) & (position << 3);
+
+        // Horizontal, diagonal (/) and diagonal (\): the cell completes three discs on
+        // either side, or two on one side and one on the other
+        for (int d = 1; d < DIRECTIONS.length; d++) {
+            int step = DIRECTIONS[d];
+            long p = (position << step) & (position << (2 * step));
+            r |= p & (position << (3 * step));
+            r |= p & (position >> step);
+            p = (position >> step) & (position >> (2 * step));
+            r |= p & (position << step);
+            r |= p & (position >> (3 * step));
+        }
+        return r & (BOARD_MASK ^ mask);
+    }
+
+    @Override
+    public int rows() {
+        return HEIGHT;
+    }
+
+    @Override
+    public int columns() {
+        return WIDTH;
+    }
+
+    @Override
+    public int cell(int row, int column) {
+        long bit = 1L << (column * COLUMN_BITS + row);
+        if ((discs[0] & bit) != 0) {
+            return 0;
+        } else if ((discs[1] & bit) != 0) {
+            return 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return True if every cell holds a disc
+     */
+    public boolean isFull() {
+        return moves == SIZE;
+    }
+
+    /**
+     * Checks whether a player has four discs in a row anywhere on the board.
+     *
+     * @param player The player, 0 or 1
+     * @return True if that player has won
+     */
+    public boolean hasWon(int player) {
+        return hasFour(discs[player]);
+    }
+
+    /**
+     * Checks whether the disc at a given bit is part of four in a row, walking
+     * outwards from it along each direction and stopping at the first line that
+     * reaches four. The empty sentinel bit on top of every column stops walks
+     * from wrapping around into the neighbouring column.
+     *
+     * @param bitboard The discs of the player who owns the disc
+     * @param index    The bit index of the disc
+     * @return True if the disc completes four in a row
+     */
+    static boolean completesFour(long bitboard, int index) {
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int step = DIRECTIONS[d];
+            int count = 1; // The disc itself
+
+            // Walk towards the lower bits
+            for (int i = index - step; i >= 0 && (bitboard & (1L << i)) != 0; i -= step) {
+                if (++count == 4) {
+                    return true;
+                }
+            }
+
+            // Walk towards the higher bits. Nothing can sit above the disc just played, so
+            // the vertical line only needs the downward walk
+            if (d != 0) {
+                for (int i = index + step; i < 64 && (bitboard & (1L << i)) != 0; i += step) {
+                    if (++count == 4) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return A bitboard with the bottom cell of every column set
+     */
+    private static long bottomMask() {
+        long mask = 0;
+        for (int column = 0; column < WIDTH; column++) {
+            mask |= 1L << (column * COLUMN_BITS);
+        }
+        return mask;
+    }
+
+    /**
+     * Shift-and-mask four-in-a-row test. For each direction, m keeps the discs
+     * that have a neighbour one step away, then m & (m >> 2 * step) keeps the
+     * discs that start a line of four.
+     *
+     * @param bitboard The discs of one player
+     * @return True if the bitboard contains four in a row
+     */
+    static boolean hasFour(long bitboard) {
+        // Vertical
+        long m = bitboard & (bitboard >> 1);
+        if ((m & (m >> 2)) != 0) {
+            return true;
+        }
+
+        // Horizontal
+        m = bitboard & (bitboard >> COLUMN_BITS);
+        if ((m & (m >> (2 * COLUMN_BITS))) != 0) {
+            return true;
+        }
+
+        // Diagonal (/)
+        m = bitboard & (bitboard >> (COLUMN_BITS + 1));
+        if ((m & (m >> (2 * (COLUMN_BITS + 1)))) != 0) {
+            return true;
+        }
+
+        // Diagonal (\)
+        m = bitboard & (bitboard >> (COLUMN_BITS - 1));
+        return (m & (m >> (2 * (COLUMN_BITS - 1)))) != 0;
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Read-only Connect Four opening book. The book file is memory-mapped and
+ * searched in place, so opening a book costs no heap and no parsing however
+ * large the file is.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *  int  MAGIC
+ *  int  VERSION
+ *  int  deepest ply in the book
+ *  int  number of entries
+ *  long entries[count], sorted ascending
+ * </pre>
+ *
+ * Each entry packs a position key (49 bits) above the score + 64 (7 bits) and
+ * the best column (3 bits), so sorting the entries sorts them by key. A single
+ * mapping holds up to 2 GB, about 268 million positions.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ConnectFourBook {
+    static final int MAGIC = 0x43344246; // "C4BF"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int count; // Number of entries
+    private final int maxPly; // Positions with more discs than this are never in the book
+
+    private ConnectFourBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a Connect Four opening book");
+        }
+        this.maxPly = buffer.getInt(8);
+        this.count = buffer.getInt(12);
+    }
+
+    /**
+     * Maps a book file into memory.
+     *
+     * @param path The book file written by ConnectFourBookGenerator
+     * @return The opened book
+     * @throws IOException If the file cannot be read
+     */
+    public static ConnectFourBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ConnectFourBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return The number of positions in the book
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return The deepest ply stored in the book
+     */
+    public int maxPly() {
+        return maxPly;
+    }
+
+    /**
+     * Looks a position up with a binary search over the mapped entries.
+     *
+     * @param board The position
+     * @return The packed entry, or -1 if the position is not in the book
+     */
+    public long lookup(ConnectFourBoard board) {
+        if (board.moveCount() > maxPly) {
+            return -1;
+        }
+        long key = board.key();
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long entry = buffer.getLong(HEADER_BYTES + middle * 8);
+            long entryKey = entry >>> 10;
+            if (entryKey < key) {
+                low = middle + 1;
+            } else if (entryKey > key) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param entry An entry returned by lookup
+     * @return The exact score of the position for the player to move
+     */
+    public static int score(long entry) {
+        return (int) ((entry >>> 3) & 0x7F) - 64;
+    }
+
+    /**
+     * @param entry An entry returned by lookup
+     * @return The best column
+     */
+    public static int column(long entry) {
+        return (int) (entry & 0x7);
+    }
+
+    /**
+     * Packs a solved position into a book entry.
+     */
+    static long entry(long key, int score, int column) {
+        return (key << 10) | ((long) (score + 64) << 3) | column;
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Offline generator for the Connect Four opening book. Enumerates every
+ * position reachable within a number of plies, solves each one exactly on all
+ * cores, and writes the sorted entries in the format read by ConnectFourBook.
+ *
+ * Usage: java ConnectFourBookGenerator plies output [timeLimitMillis]
+ * Positions that cannot be solved within the optional per-position time limit
+ * are left out of the book.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+public class ConnectFourBookGenerator {
+    static final int MAX_PLIES = 19; // Move sequences are packed 3 bits per move below a 5-bit ply count
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java ConnectFourBookGenerator plies output [timeLimitMillis]");
+            return;
+        }
+        int plies = Integer.parseInt(args[0]);
+        Path output = Paths.get(args[1]);
+        long timeLimitMillis = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        long start = System.nanoTime();
+        int written = generate(new ConnectFourBoard(), plies, timeLimitMillis, output);
+        System.out.printf("Wrote %d positions to %s in %.1fs\n", written, output, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Solves every position up to a ply depth below a root and writes the book.
+     *
+     * @param root            The position to start from, usually the empty board
+     * @param plies           The deepest ply to include, counted from the empty board
+     * @param timeLimitMillis Time limit per position, or 0 to solve every position
+     * @param output          The book file to write
+     * @return The number of positions written
+     * @throws IOException If the file cannot be written
+     */
+    static int generate(ConnectFourBoard root, int plies, long timeLimitMillis, Path output) throws IOException {
+        if (plies > MAX_PLIES) {
+            throw new IllegalArgumentException("At most " + MAX_PLIES + " plies are supported");
+        }
+
+        // Collect each distinct position once, as its packed move sequence
+        SequenceCollector collector = new SequenceCollector();
+        collector.visit(new ConnectFourBoard(root), plies);
+        long[] sequences = collector.sequences();
+        if (sequences.length == 0) {
+            throw new IllegalStateException("The root position was not collected");
+        }
+
+        // Solve on every core, sharing one table across the solver threads. The table's generation
+        // is started once for the whole batch: a flag that is never raised tells each solver to
+        // leave it alone, instead of every thread restarting it for every position
+        TranspositionTable table = new TranspositionTable(512L << 20,
+                TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        table.newSearch();
+        AtomicBoolean neverStop = new AtomicBoolean();
+        ThreadLocal<ConnectFourSolver> solvers = ThreadLocal.withInitial(() -> {
+            ConnectFourSolver solver = new ConnectFourSolver(table);
+            solver.setStopFlag(neverStop);
+            return solver;
+        });
+        long[] entries = new long[sequences.length];
+        IntStream.range(0, sequences.length).parallel().forEach(i -> {
+            ConnectFourBoard board = unpack(sequences[i]);
+            ConnectFourSolver.SearchResult result = solvers.get().solve(board, timeLimitMillis);
+            entries[i] = result.exact ? ConnectFourBook.entry(board.key(), result.score, result.column) : -1;
+        });
+        if (timeLimitMillis == 0 && entries[0] < 0) {
+            throw new IllegalStateException("The root position is missing from the book"); // sequences[0] is the root
+        }
+
+        // Drop unsolved positions and sort by key
+        Arrays.sort(entries);
+        int first = 0;
+        while (first < entries.length && entries[first] < 0) {
+            first++;
+        }
+        int count = entries.length - first;
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            buffer.putInt(ConnectFourBook.MAGIC).putInt(ConnectFourBook.VERSION).putInt(plies).putInt(count);
+            for (int i = first; i < entries.length; i++) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(entries[i]);
+            }
+            drain(channel, buffer);
+        }
+        return count;
+    }
+
+    /**
+     * Writes out everything in the buffer and clears it for reuse.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Replays a packed move sequence onto an empty board.
+     */
+    private static ConnectFourBoard unpack(long sequence) {
+        ConnectFourBoard board = new ConnectFourBoard();
+        int moves = (int) (sequence >>> 59);
+        for (int i = 0; i < moves; i++) {
+            board.play((int) (sequence >>> (3 * i)) & 0x7);
+        }
+        return board;
+    }
+
+    /**
+     * Depth-first walk that records the move sequence of each new position,
+     * skipping transpositions with an open-addressing set of position keys.
+     */
+    private static class SequenceCollector {
+        private long[] keys = new long[1 << 16]; // Key + 1 for each position, 0 marks an empty slot
+        private int keyCount;
+        private long[] sequences = new long[1 << 12];
+        private int sequenceCount;
+
+        void visit(ConnectFourBoard board, int plies) {
+            if (!add(board.key())) {
+                return; // Already reached by another move order
+            }
+            sequences = ensureCapacity(sequences, sequenceCount);
+            sequences[sequenceCount++] = pack(board);
+
+            if (board.moveCount() >= plies) {
+                return;
+            }
+            for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+                if (board.canPlay(column)) {
+                    // Positions where the game is already over are not worth storing
+                    if (board.playAndCheck(column) == ConnectFourBoard.OUTCOME_NONE) {
+                        visit(board, plies);
+                    }
+                    board.undo();
+                }
+            }
+        }
+
+        long[] sequences() {
+            return Arrays.copyOf(sequences, sequenceCount);
+        }
+
+        private boolean add(long key) {
+            return addStored(key + 1); // The empty board's key is 0, so keys are stored one up
+        }
+
+        private boolean addStored(long key) {
+            if (2 * (keyCount + 1) > keys.length) {
+                rehash();
+            }
+            int mask = keys.length - 1;
+            for (int i = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & mask;; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return false;
+                } else if (keys[i] == 0) {
+                    keys[i] = key;
+                    keyCount++;
+                    return true;
+                }
+            }
+        }
+
+        private void rehash() {
+            long[] old = keys;
+            keys = new long[old.length * 2];
+            keyCount = 0;
+            for (long key : old) {
+                if (key != 0) {
+                    addStored(key);
+                }
+            }
+        }
+
+        private static long[] ensureCapacity(long[] array, int size) {
+            return size < array.length ? array : Arrays.copyOf(array, array.length * 2);
+        }
+
+        /**
+         * Packs the moves played so far, 3 bits each, with the ply count in the top 5 bits.
+         */
+        private static long pack(ConnectFourBoard board) {
+            long sequence = (long) board.moveCount() << 59;
+            for (int i = 0; i < board.moveCount(); i++) {
+                sequence |= (long) board.moveAt(i) << (3 * i);
+            }
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Headless Connect Four game: two players take turns on a board with no
+ * console input or output, so games can be played as fast as the players
+ * can choose their moves.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+public class ConnectFourGame {
+    public static final int DRAW = -1; // Returned by play when the board fills up without a win
+
+    /**
+     * Plays one game to the end on an empty board.
+     *
+     * @param first  The player who moves first (player 0)
+     * @param second The player who moves second (player 1)
+     * @param board  An empty board to play on; it holds the final position afterwards
+     * @return 0 or 1 for the winning player, or DRAW
+     */
+    public static int play(ConnectFourPlayer first, ConnectFourPlayer second, ConnectFourBoard board) {
+        ConnectFourPlayer[] players = { first, second };
+        while (true) {
+            int player = board.playerToMove();
+            int column = players[player].chooseColumn(board);
+            if (column < 0 || column >= ConnectFourBoard.WIDTH || !board.canPlay(column)) {
+                throw new IllegalStateException("Player " + player + " chose an illegal column: " + column);
+            }
+
+            int outcome = board.playAndCheck(column);
+            if (outcome == ConnectFourBoard.OUTCOME_WIN) {
+                return player;
+            } else if (outcome == ConnectFourBoard.OUTCOME_DRAW) {
+                return DRAW;
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Multi-core search for Connect Four positions using Lazy SMP: every worker
+ * runs its own iterative-deepening search of the same position on a
+ * ForkJoinPool, and all of them share one transposition table. Positions one
+ * worker has evaluated become table hits for the others, and the first worker
+ * to solve the position stops the rest.
+ *
+ * Run as a program to compare a single-threaded and a parallel search of a
+ * position given as a string of column digits, e.g. java ConnectFourParallelSearch 4453
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConnectFourParallelSearch {
+
+    /**
+     * Result and statistics of one search.
+     */
+    public static class SearchStats {
+        public final ConnectFourSolver.SearchResult result; // Result the search settled on
+        public final long nodes; // Positions visited by every thread together
+        public final long elapsedNanos; // Wall-clock time of the search
+        public final int threads; // Number of search threads
+
+        SearchStats(ConnectFourSolver.SearchResult result, long nodes, long elapsedNanos, int threads) {
+            this.result = result;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+            this.threads = threads;
+        }
+
+        /**
+         * @return Positions visited per second of wall-clock time
+         */
+        public double nodesPerSecond() {
+            return nodes * 1e9 / Math.max(elapsedNanos, 1);
+        }
+
+        /**
+         * @param baseline A search of the same position, usually single-threaded
+         * @return How many times faster this search finished than the baseline
+         */
+        public double speedup(SearchStats baseline) {
+            return (double) baseline.elapsedNanos / Math.max(elapsedNanos, 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("threads=%d column=%d score=%d exact=%b depth=%d nodes=%d time=%.1fms nps=%.0f",
+                    threads, result.column, result.score, result.exact, result.depth, nodes, elapsedNanos / 1e6,
+                    nodesPerSecond());
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable table; // Shared by every worker
+    private final ConnectFourSolver[] workers; // One solver per thread, worker 0 is the main search
+
+    /**
+     * Creates a parallel search.
+     *
+     * @param threads    Number of search threads
+     * @param tableBytes Memory budget of the shared transposition table
+     */
+    public ConnectFourParallelSearch(int threads, long tableBytes) {
+        this.pool = new ForkJoinPool(threads);
+        this.table = new TranspositionTable(tableBytes, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        this.workers = new ConnectFourSolver[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new ConnectFourSolver(table, i);
+        }
+    }
+
+    /**
+     * Searches a position on every thread until one of them solves it or the
+     * time limit passes.
+     *
+     * @param position        The position to search; it is not modified
+     * @param timeLimitMillis The time budget, or 0 for no limit
+     * @return The chosen result with node and timing statistics
+     */
+    public SearchStats search(ConnectFourBoard position, long timeLimitMillis) {
+        long start = System.nanoTime();
+        AtomicBoolean stop = new AtomicBoolean();
+        table.newSearch();
+
+        List<ForkJoinTask<ConnectFourSolver.SearchResult>> futures = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            ConnectFourSolver worker = workers[i];
+            worker.setStopFlag(stop);
+            futures.add(pool.submit(() -> {
+                ConnectFourSolver.SearchResult result = worker.solve(position, timeLimitMillis);
+                if (result.exact) {
+                    stop.set(true); // Solved, the other workers can stop
+                }
+                return result;
+            }));
+        }
+
+        // Prefer an exact result, otherwise the deepest finished iteration, with the main
+        // worker winning ties
+        ConnectFourSolver.SearchResult best = null;
+        long nodes = 0;
+        for (ForkJoinTask<ConnectFourSolver.SearchResult> future : futures) {
+            ConnectFourSolver.SearchResult result = future.join();
+            nodes += result.nodes;
+            if (best == null || (result.exact && !best.exact)
+                    || (result.exact == best.exact && !best.exact && result.depth > best.depth)) {
+                best = result;
+            }
+        }
+        return new SearchStats(best, nodes, System.nanoTime() - start, workers.length);
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Solves a position with one thread and then with every core, and prints
+     * nodes, nodes per second and the speedup.
+     *
+     * @param args The position as column digits (0-6), and optionally the number of threads
+     */
+    public static void main(String[] args) {
+        ConnectFourBoard position = new ConnectFourBoard();
+        String moves = args.length > 0 ? args[0] : "";
+        for (int i = 0; i < moves.length(); i++) {
+            position.play(moves.charAt(i) - '0');
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long tableBytes = 256L << 20;
+
+        ConnectFourParallelSearch single = new ConnectFourParallelSearch(1, tableBytes);
+        SearchStats baseline = single.search(position, 0);
+        single.shutdown();
+        System.out.println("Single: " + baseline);
+
+        ConnectFourParallelSearch parallel = new ConnectFourParallelSearch(threads, tableBytes);
+        SearchStats stats = parallel.search(position, 0);
+        parallel.shutdown();
+        System.out.println("Parallel: " + stats);
+        System.out.printf("Speedup: %.2fx\n", stats.speedup(baseline));
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * A strategy that picks a column for the player to move. Players may keep
+ * state such as a random generator or a solver, so each thread of a
+ * tournament needs its own instances.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.util.SplittableRandom;
+
+public interface ConnectFourPlayer {
+
+    /**
+     * Picks a column for the player to move. The board must not be left
+     * changed.
+     *
+     * @param board The current position; at least one column is playable
+     * @return A playable column, between 0 and ConnectFourBoard.WIDTH - 1
+     */
+    int chooseColumn(ConnectFourBoard board);
+
+    /**
+     * Creates a player by name, for command-line use.
+     *
+     * @param name        "random", "greedy" or "solver"
+     * @param seed        Seed for the player's random choices
+     * @param thinkMillis Time budget per move for the solver player
+     * @return The player
+     */
+    static ConnectFourPlayer named(String name, long seed, long thinkMillis) {
+        if (name.equals("random")) {
+            return new RandomPlayer(seed);
+        } else if (name.equals("greedy")) {
+            return new GreedyPlayer(seed);
+        } else if (name.equals("solver")) {
+            return new SolverPlayer(thinkMillis, 16L << 20);
+        }
+        throw new IllegalArgumentException("Unknown player: " + name);
+    }
+
+    /**
+     * Plays a random legal column.
+     */
+    class RandomPlayer implements ConnectFourPlayer {
+        private final SplittableRandom random;
+
+        public RandomPlayer(long seed) {
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public int chooseColumn(ConnectFourBoard board) {
+            int column;
+            do {
+                column = random.nextInt(ConnectFourBoard.WIDTH);
+            } while (!board.canPlay(column));
+            return column;
+        }
+    }
+
+    /**
+     * Wins when it can, blocks the opponent's immediate win, and otherwise
+     * plays a random column that does not set up a win for the opponent.
+     */
+    class GreedyPlayer implements ConnectFourPlayer {
+        private final SplittableRandom random;
+
+        public GreedyPlayer(long seed) {
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public int chooseColumn(ConnectFourBoard board) {
+            int me = board.playerToMove();
+            long possible = board.possibleMoves();
+
+            // Win right away if we can, else block the opponent
+            long wins = board.winningCells(me) & possible;
+            if (wins == 0) {
+                wins = board.winningCells(me ^ 1) & possible;
+            }
+            if (wins != 0) {
+                return columnOf(wins);
+            }
+
+            // Avoid playing right below an opponent threat, unless every column does
+            long safe = possible & ~(board.winningCells(me ^ 1) >> 1);
+            long choices = safe != 0 ? safe : possible;
+            int pick = random.nextInt(Long.bitCount(choices));
+            for (int i = 0; i < pick; i++) {
+                choices &= choices - 1; // Drop the lowest move
+            }
+            return columnOf(choices);
+        }
+
+        /**
+         * @return The column of the lowest set bit
+         */
+        private static int columnOf(long moves) {
+            return Long.numberOfTrailingZeros(moves) / ConnectFourBoard.COLUMN_BITS;
+        }
+    }
+
+    /**
+     * Plays the move found by ConnectFourSolver within a time budget.
+     */
+    class SolverPlayer implements ConnectFourPlayer {
+        private final ConnectFourSolver solver;
+        private final long thinkMillis;
+
+        public SolverPlayer(long thinkMillis, long tableBytes) {
+            this.solver = new ConnectFourSolver(
+                    new TranspositionTable(tableBytes, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+            this.thinkMillis = thinkMillis;
+        }
+
+        @Override
+        public int chooseColumn(ConnectFourBoard board) {
+            return solver.solve(board, thinkMillis).column;
+        }
+    }
+}
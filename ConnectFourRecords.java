@@ -0,0 +1,387 @@
+/**
+ * Compact binary log of finished Connect Four games. A record is one length
+ * byte followed by the columns played, three bits each, so an average game of
+ * about twenty moves takes nine bytes where a line of text would take over
+ * forty and need parsing back.
+ *
+ * File layout:
+ * <pre>
+ *  int  MAGIC (big-endian)
+ *  int  VERSION (big-endian)
+ *  then records, back to back:
+ *  byte result in the top 2 bits, number of moves (0 to 42) in the low 6
+ *  byte moves[(3 * count + 7) / 8], move i in bits 3i to 3i + 2, counting
+ *       from the lowest bit of the first byte
+ * </pre>
+ * Results are 0 or 1 for the winning player, 2 for a draw and 3 for a game
+ * that was abandoned.
+ *
+ * A Writer appends records to a file through one buffer, so the file sees a
+ * write per batch of thousands of games rather than one per game. A Reader
+ * streams a file in large Batches of whole records, which can be decoded on
+ * the reading thread or handed to other threads; see ConnectFourReplay.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class ConnectFourRecords {
+    static final int MAGIC = 0x43344752; // "C4GR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+
+    public static final int UNFINISHED = -2; // Result of a game that was abandoned before it ended
+
+    static final int MAX_RECORD_BYTES = 1 + (3 * ConnectFourBoard.SIZE + 7) / 8;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+    private static final int BATCH_BYTES = 1 << 20; // Size of the batches a Reader hands out
+
+    /**
+     * @param result 0 or 1 for the winning player, ConnectFourGame.DRAW or UNFINISHED
+     * @return The two-bit code stored in a record
+     */
+    static int resultCode(int result) {
+        if (result == 0 || result == 1) {
+            return result;
+        } else if (result == ConnectFourGame.DRAW) {
+            return 2;
+        } else if (result == UNFINISHED) {
+            return 3;
+        }
+        throw new IllegalArgumentException("Not a game result: " + result);
+    }
+
+    /**
+     * @return The record's length in bytes, from its first byte
+     */
+    static int recordBytes(byte first) {
+        return 1 + (3 * (first & 0x3F) + 7) / 8;
+    }
+
+    /**
+     * Appends games to a record file. Records are buffered and written a batch
+     * at a time, and only ever whole. Appending is synchronized, so one writer
+     * can record the games of many threads.
+     */
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        private long records; // Records appended by this writer
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Opens a record file for appending, creating it if it does not exist.
+         * If the file ends partway through a record, as it does when a writer
+         * died while writing, the partial record is cut off so that new
+         * records start on a record boundary.
+         *
+         * @param path The record file
+         * @return The writer
+         * @throws IOException If the file cannot be opened, or is not a record file
+         */
+        public static Writer open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                if (channel.size() == 0) {
+                    header.putInt(MAGIC).putInt(VERSION).flip();
+                    writeFully(channel, header);
+                } else {
+                    readHeader(channel, header);
+                    long end = wholeRecordsEnd(channel);
+                    if (end < channel.size()) {
+                        channel.truncate(end);
+                    }
+                }
+                channel.position(channel.size());
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return new Writer(channel);
+        }
+
+        /**
+         * Appends the game held by a board, every move from the first.
+         *
+         * @param board  The board after the game
+         * @param result 0 or 1 for the winning player, ConnectFourGame.DRAW or UNFINISHED
+         * @throws IOException If a full buffer cannot be written
+         */
+        public synchronized void append(ConnectFourBoard board, int result) throws IOException {
+            if (buffer.remaining() < MAX_RECORD_BYTES) {
+                flushBuffer();
+            }
+            int moves = board.moveCount();
+            buffer.put((byte) (resultCode(result) << 6 | moves));
+            long bits = 0; // Moves not yet written, lowest first
+            int count = 0; // Number of bits in bits
+            for (int i = 0; i < moves; i++) {
+                bits |= (long) board.moveAt(i) << count;
+                count += 3;
+                if (count >= 8) {
+                    buffer.put((byte) bits);
+                    bits >>>= 8;
+                    count -= 8;
+                }
+            }
+            if (count > 0) {
+                buffer.put((byte) bits);
+            }
+            records++;
+        }
+
+        /**
+         * @return The number of games appended by this writer
+         */
+        public synchronized long records() {
+            return records;
+        }
+
+        /**
+         * Writes every buffered record to the file.
+         *
+         * @throws IOException If the file cannot be written
+         */
+        public synchronized void flush() throws IOException {
+            flushBuffer();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try {
+                flushBuffer();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+
+        /**
+         * Walks the record lengths from the end of the header.
+         *
+         * @return The offset just past the last whole record in the file
+         */
+        private static long wholeRecordsEnd(FileChannel channel) throws IOException {
+            ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+            long end = HEADER_BYTES; // Offset just past the last whole record found
+            while (end < channel.size()) {
+                chunk.clear();
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, end + chunk.position()) < 0) {
+                        break;
+                    }
+                }
+                chunk.flip();
+
+                // The chunk holds many records, so one that does not fit in it runs past the end of the file
+                int offset = 0;
+                while (offset < chunk.limit() && offset + recordBytes(chunk.get(offset)) <= chunk.limit()) {
+                    offset += recordBytes(chunk.get(offset));
+                }
+                if (offset == 0) {
+                    break;
+                }
+                end += offset;
+            }
+            return end;
+        }
+    }
+
+    /**
+     * Streams a record file in batches of whole records. Each batch is a new
+     * array, so batches may be handed to other threads while the next one is
+     * read.
+     */
+    public static class Reader implements Closeable {
+        private final FileChannel channel;
+        private byte[] carry = new byte[0]; // The start of a record cut off by the end of the last read
+        private long batches;
+        private boolean finished;
+        private int trailingBytes; // Bytes of a final record the file ends before
+
+        private Reader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Opens a record file for reading.
+         *
+         * @param path The record file
+         * @return The reader, positioned at the first record
+         * @throws IOException If the file cannot be read, or is not a record file
+         */
+        public static Reader open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                readHeader(channel, ByteBuffer.allocate(HEADER_BYTES));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return new Reader(channel);
+        }
+
+        /**
+         * Reads the next batch of records.
+         *
+         * @return The batch, or null when there are no more records
+         * @throws IOException If the file cannot be read
+         */
+        public Batch next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            byte[] data = Arrays.copyOf(carry, BATCH_BYTES);
+            ByteBuffer buffer = ByteBuffer.wrap(data, carry.length, data.length - carry.length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    finished = true;
+                    break;
+                }
+            }
+            int length = buffer.position();
+
+            // Keep whole records only, and carry the rest over to the next batch
+            int end = 0;
+            int records = 0;
+            while (end < length && end + recordBytes(data[end]) <= length) {
+                end += recordBytes(data[end]);
+                records++;
+            }
+            carry = Arrays.copyOfRange(data, end, length);
+            if (finished) {
+                trailingBytes = carry.length;
+            }
+            if (records == 0) {
+                return null;
+            }
+            batches++;
+            return new Batch(data, end, records);
+        }
+
+        /**
+         * @return The number of bytes at the end of the file that do not make a
+         *         whole record, once every batch has been read; non-zero only if a
+         *         writer died while writing
+         */
+        public int trailingBytes() {
+            return trailingBytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * A run of whole records. Call next to move to a record, then read its
+     * moves and result.
+     */
+    public static class Batch {
+        private final byte[] data;
+        private final int length; // Bytes of data holding records
+        private final int records;
+        private int offset = -1; // Offset of the current record
+        private int next; // Offset of the record after it
+
+        Batch(byte[] data, int length, int records) {
+            this.data = data;
+            this.length = length;
+            this.records = records;
+        }
+
+        /**
+         * @return The number of records in the batch
+         */
+        public int records() {
+            return records;
+        }
+
+        /**
+         * Moves to the next record.
+         *
+         * @return Whether there was another record
+         */
+        public boolean next() {
+            if (next >= length) {
+                return false;
+            }
+            offset = next;
+            next += recordBytes(data[offset]);
+            return true;
+        }
+
+        /**
+         * @return The number of moves in the current game
+         */
+        public int moves() {
+            return data[offset] & 0x3F;
+        }
+
+        /**
+         * @return 0 or 1 for the winning player, ConnectFourGame.DRAW or UNFINISHED
+         */
+        public int result() {
+            switch ((data[offset] >> 6) & 3) {
+                case 0:
+                    return 0;
+                case 1:
+                    return 1;
+                case 2:
+                    return ConnectFourGame.DRAW;
+                default:
+                    return UNFINISHED;
+            }
+        }
+
+        /**
+         * @param move The move number, from 0 for the first move
+         * @return The column played
+         */
+        public int column(int move) {
+            int bit = 3 * move;
+            int index = offset + 1 + (bit >>> 3);
+            int value = (data[index] & 0xFF) >>> (bit & 7);
+            if ((bit & 7) > 5) {
+                value |= (data[index + 1] & 0xFF) << (8 - (bit & 7)); // The move straddles two bytes
+            }
+            return value & 7;
+        }
+    }
+
+    private static void readHeader(FileChannel channel, ByteBuffer header) throws IOException {
+        while (header.hasRemaining()) {
+            if (channel.read(header) < 0) {
+                throw new IOException("Not a Connect Four record file: too short");
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a Connect Four record file");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
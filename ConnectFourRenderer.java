@@ -0,0 +1,265 @@
+/**
+ * Buffered renderer for Connect Four boards of any size. Output is built up in
+ * one reusable byte buffer and written with a single call when flushed, instead
+ * of one console write per character or per line.
+ *
+ * Three kinds of output can be appended, and mixed in one buffer:
+ * <ul>
+ * <li>frame: the whole board, in the layout of ConnectFour.displayBoard</li>
+ * <li>diff: only the cells that changed since the spectator last saw the
+ * board, one "game row column symbol" line each, rows counted from the
+ * bottom</li>
+ * <li>move: a single "game row column symbol" line for a disc just played,
+ * when the caller already knows what changed</li>
+ * </ul>
+ * Frames suit a player at the console. Diffs and moves let one process stream
+ * thousands of live games to watchers, since a move costs a few bytes rather
+ * than a whole frame.
+ *
+ * Usage: java ConnectFourRenderer games [frame|diff|move]
+ * plays random games and streams them to standard output in the given mode,
+ * reporting the throughput on standard error.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.FileOutputStream;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class ConnectFourRenderer {
+    private static final int FLUSH_BYTES = 1 << 16; // Streams are flushed once this much is buffered
+
+    private final byte[] symbols; // The character for player 0 and for player 1
+    private byte[] buffer = new byte[1024]; // Grown as needed, never shrunk
+    private int length; // Bytes waiting to be flushed
+
+    /**
+     * Creates a renderer.
+     *
+     * @param symbols The character for player 0 and for player 1
+     */
+    public ConnectFourRenderer(char[] symbols) {
+        this.symbols = new byte[] { (byte) symbols[0], (byte) symbols[1] };
+    }
+
+    /**
+     * Appends the whole board: one "|x|x|...|x| " line per row from the top
+     * down, then a base line.
+     *
+     * @param board The board to draw
+     * @return This renderer
+     */
+    public ConnectFourRenderer appendFrame(ConnectGrid board) {
+        int columns = board.columns();
+        int lineLength = 2 * columns + 3; // "|x|...|x| " and the newline
+        ensure(board.rows() * lineLength + lineLength - 1);
+
+        // Draw from the top row down, since the engines count rows from the bottom
+        for (int row = board.rows() - 1; row >= 0; row--) {
+            for (int column = 0; column < columns; column++) {
+                int player = board.cell(row, column);
+                buffer[length++] = '|';
+                buffer[length++] = player < 0 ? (byte) ' ' : symbols[player];
+            }
+            buffer[length++] = '|';
+            buffer[length++] = ' ';
+            buffer[length++] = '\n';
+        }
+
+        // Draw horizontal base line
+        Arrays.fill(buffer, length, length + 2 * columns + 1, (byte) '-');
+        length += 2 * columns + 1;
+        buffer[length++] = '\n';
+        return this;
+    }
+
+    /**
+     * Creates the record of what a spectator has seen of a board, before they
+     * have seen anything.
+     *
+     * @param board The board being watched
+     * @return One entry per cell, all empty; pass it to appendDiff
+     */
+    public static byte[] newSeen(ConnectGrid board) {
+        byte[] seen = new byte[board.rows() * board.columns()];
+        Arrays.fill(seen, (byte) -1);
+        return seen;
+    }
+
+    /**
+     * Appends a line for every cell that differs from what the spectator last
+     * saw, and records the board as seen. Nothing is appended if no cell
+     * changed. A cell that was emptied, by an undo, is sent with a blank
+     * symbol.
+     *
+     * @param game  The number the spectator knows the game by
+     * @param board The board being watched
+     * @param seen  What the spectator has seen, from newSeen; updated
+     * @return The number of cells appended
+     */
+    public int appendDiff(int game, ConnectGrid board, byte[] seen) {
+        int rows = board.rows();
+        int changed = 0;
+        for (int column = 0; column < board.columns(); column++) {
+            for (int row = 0; row < rows; row++) {
+                int player = board.cell(row, column);
+                int i = column * rows + row;
+                if (seen[i] != player) {
+                    seen[i] = (byte) player;
+                    appendCell(game, row, column, player);
+                    changed++;
+                } else if (player < 0) {
+                    break; // Columns fill from the bottom, so the rest are empty too
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Appends a line for one disc just played.
+     *
+     * @param game   The number the spectator knows the game by
+     * @param row    The row the disc landed in, counted from the bottom (0) up
+     * @param column The column it was dropped into
+     * @param player The player who dropped it, 0 or 1
+     * @return This renderer
+     */
+    public ConnectFourRenderer appendMove(int game, int row, int column, int player) {
+        appendCell(game, row, column, player);
+        return this;
+    }
+
+    /**
+     * @return The number of bytes waiting to be flushed
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Writes everything appended since the last flush in one call and empties
+     * the buffer.
+     *
+     * @param out Where to write
+     * @throws IOException If the stream cannot be written
+     */
+    public void flush(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+        out.flush();
+        length = 0;
+    }
+
+    /**
+     * Empties the buffer without writing it.
+     */
+    public void clear() {
+        length = 0;
+    }
+
+    private void appendCell(int game, int row, int column, int player) {
+        ensure(40); // Three ints, a symbol and the separators
+        length = putInt(buffer, length, game);
+        buffer[length++] = ' ';
+        length = putInt(buffer, length, row);
+        buffer[length++] = ' ';
+        length = putInt(buffer, length, column);
+        buffer[length++] = ' ';
+        buffer[length++] = player < 0 ? (byte) ' ' : symbols[player];
+        buffer[length++] = '\n';
+    }
+
+    private static int putInt(byte[] out, int offset, int value) {
+        if (value < 0) {
+            out[offset++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    private void ensure(int more) {
+        if (length + more > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + more));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java ConnectFourRenderer games [frame|diff|move]");
+            return;
+        }
+        int games = Integer.parseInt(args[0]);
+        String mode = args.length > 1 ? args[1] : "move";
+        if (!mode.equals("frame") && !mode.equals("diff") && !mode.equals("move")) {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+
+        // Every game is live at once: each round plays one random move in every game still going
+        ConnectFourBoard[] boards = new ConnectFourBoard[games];
+        byte[][] seen = new byte[games][];
+        boolean[] finished = new boolean[games];
+        for (int g = 0; g < games; g++) {
+            boards[g] = new ConnectFourBoard();
+            seen[g] = newSeen(boards[g]);
+        }
+        ConnectFourRenderer renderer = new ConnectFourRenderer(new char[] { 'R', 'Y' });
+        OutputStream out = new FileOutputStream(FileDescriptor.out); // Unsynchronized, unlike System.out
+        SplittableRandom random = new SplittableRandom(5);
+
+        long start = System.nanoTime();
+        long moves = 0;
+        long bytes = 0;
+        for (int live = games; live > 0;) {
+            live = 0;
+            for (int g = 0; g < games; g++) {
+                if (finished[g]) {
+                    continue;
+                }
+                ConnectFourBoard board = boards[g];
+                int column;
+                do {
+                    column = random.nextInt(ConnectFourBoard.WIDTH);
+                } while (!board.canPlay(column));
+                int player = board.playerToMove();
+                int outcome = board.playAndCheck(column);
+                moves++;
+
+                if (mode.equals("frame")) {
+                    renderer.appendFrame(board);
+                } else if (mode.equals("diff")) {
+                    renderer.appendDiff(g, board, seen[g]);
+                } else {
+                    renderer.appendMove(g, board.height(column) - 1, column, player);
+                }
+                if (renderer.length() >= FLUSH_BYTES) {
+                    bytes += renderer.length();
+                    renderer.flush(out);
+                }
+
+                if (outcome == ConnectFourBoard.OUTCOME_NONE) {
+                    live++;
+                } else {
+                    finished[g] = true;
+                }
+            }
+        }
+        bytes += renderer.length();
+        renderer.flush(out);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%,d games, %,d moves in %.2f s (%,.0f moves/s), %,d bytes (%.1f per move)\n", games,
+                moves, seconds, moves / seconds, bytes, (double) bytes / moves);
+    }
+}
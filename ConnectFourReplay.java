@@ -0,0 +1,245 @@
+/**
+ * Replays a ConnectFourRecords file and reports aggregate statistics: results
+ * overall and per opening, game lengths, and how often each column is played.
+ * The file is streamed once; the reading thread only cuts it into batches of
+ * whole records, and the batches are decoded and replayed on a pool of
+ * threads, each into its own Stats, which are merged in the order read.
+ *
+ * Every game is replayed on a ConnectFourBoard, so a record whose moves are
+ * illegal, continue past a win, or do not lead to the result it claims is
+ * counted as invalid rather than trusted.
+ *
+ * Usage: java ConnectFourReplay records [openingPlies] [threads]
+ * openingPlies, 1 to 4, sets how many first moves make an opening (default 2).
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConnectFourReplay {
+    static final int MAX_OPENING_PLIES = 4; // 7^4 = 2401 openings
+    private static final int BATCHES_PER_THREAD = 2; // Batches read ahead, so no thread waits on the file
+
+    /**
+     * Totals over a set of games. Results are counted from the point of view
+     * of the player who moved first.
+     */
+    public static class Stats {
+        public final int openingPlies;
+        public long games; // Valid games counted
+        public long invalid; // Records that do not replay
+        public long moves; // Moves in every valid game
+        public final long[] results = new long[4]; // First player won, second won, drawn, unfinished
+        public final long[] lengths = new long[ConnectFourBoard.SIZE + 1]; // Games ending after each move count
+        public final long[] columns = new long[ConnectFourBoard.WIDTH]; // Moves played in each column
+
+        // Per opening, indexed by its first moves read as a number in base 7
+        public final long[] openingGames;
+        public final long[] openingFirstWins;
+        public final long[] openingSecondWins;
+
+        /**
+         * @param openingPlies How many first moves make an opening, 1 to MAX_OPENING_PLIES
+         */
+        public Stats(int openingPlies) {
+            if (openingPlies < 1 || openingPlies > MAX_OPENING_PLIES) {
+                throw new IllegalArgumentException("Openings are 1 to " + MAX_OPENING_PLIES + " plies");
+            }
+            this.openingPlies = openingPlies;
+            int openings = (int) Math.pow(ConnectFourBoard.WIDTH, openingPlies);
+            this.openingGames = new long[openings];
+            this.openingFirstWins = new long[openings];
+            this.openingSecondWins = new long[openings];
+        }
+
+        /**
+         * @return The mean number of moves in a valid game
+         */
+        public double averageLength() {
+            return games == 0 ? 0 : (double) moves / games;
+        }
+
+        /**
+         * Replays every record of a batch and counts it.
+         *
+         * @param batch The records, read from the start
+         * @param board A board to replay on, reset for every game
+         */
+        public void addAll(ConnectFourRecords.Batch batch, ConnectFourBoard board) {
+            while (batch.next()) {
+                add(batch, board);
+            }
+        }
+
+        /**
+         * Replays the current record of a batch and counts it.
+         */
+        void add(ConnectFourRecords.Batch record, ConnectFourBoard board) {
+            board.reset();
+            int moves = record.moves();
+            int outcome = ConnectFourBoard.OUTCOME_NONE;
+            int opening = 0;
+            for (int i = 0; i < moves; i++) {
+                int column = record.column(i);
+                if (outcome != ConnectFourBoard.OUTCOME_NONE || column >= ConnectFourBoard.WIDTH
+                        || !board.canPlay(column)) {
+                    invalid++; // A move after the game ended, or into no column or a full one
+                    return;
+                }
+                outcome = board.playAndCheck(column);
+                if (i < openingPlies) {
+                    opening = opening * ConnectFourBoard.WIDTH + column;
+                }
+            }
+
+            int result = record.result();
+            int expected = outcome == ConnectFourBoard.OUTCOME_WIN ? (moves - 1) & 1
+                    : outcome == ConnectFourBoard.OUTCOME_DRAW ? ConnectFourGame.DRAW : ConnectFourRecords.UNFINISHED;
+            if (result != expected) {
+                invalid++;
+                return;
+            }
+
+            games++;
+            this.moves += moves;
+            results[ConnectFourRecords.resultCode(result)]++;
+            lengths[moves]++;
+            for (int i = 0; i < moves; i++) {
+                columns[board.moveAt(i)]++;
+            }
+            if (moves >= openingPlies) {
+                openingGames[opening]++;
+                if (result == 0) {
+                    openingFirstWins[opening]++;
+                } else if (result == 1) {
+                    openingSecondWins[opening]++;
+                }
+            }
+        }
+
+        /**
+         * Adds another set of totals, counted with the same opening length, to these.
+         */
+        public void add(Stats other) {
+            games += other.games;
+            invalid += other.invalid;
+            moves += other.moves;
+            addAll(results, other.results);
+            addAll(lengths, other.lengths);
+            addAll(columns, other.columns);
+            addAll(openingGames, other.openingGames);
+            addAll(openingFirstWins, other.openingFirstWins);
+            addAll(openingSecondWins, other.openingSecondWins);
+        }
+
+        private static void addAll(long[] to, long[] from) {
+            for (int i = 0; i < to.length; i++) {
+                to[i] += from[i];
+            }
+        }
+    }
+
+    /**
+     * Replays a whole record file.
+     *
+     * @param path         The record file
+     * @param openingPlies How many first moves make an opening
+     * @param threads      Number of threads to replay on
+     * @return The totals for every record in the file
+     * @throws IOException If the file cannot be read
+     */
+    public static Stats replay(Path path, int openingPlies, int threads)
+            throws IOException, InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ThreadLocal<ConnectFourBoard> boards = ThreadLocal.withInitial(ConnectFourBoard::new);
+        ArrayDeque<Future<Stats>> pending = new ArrayDeque<>();
+        Stats total = new Stats(openingPlies);
+
+        try (ConnectFourRecords.Reader reader = ConnectFourRecords.Reader.open(path)) {
+            ConnectFourRecords.Batch batch;
+            while ((batch = reader.next()) != null) {
+                ConnectFourRecords.Batch records = batch;
+                pending.add(pool.submit(() -> {
+                    Stats stats = new Stats(openingPlies);
+                    stats.addAll(records, boards.get());
+                    return stats;
+                }));
+
+                // Bound the batches in memory; the oldest is the most likely to be done
+                if (pending.size() >= BATCHES_PER_THREAD * threads) {
+                    total.add(pending.remove().get());
+                }
+            }
+            while (!pending.isEmpty()) {
+                total.add(pending.remove().get());
+            }
+            if (reader.trailingBytes() > 0) {
+                System.err.printf("Ignored %d bytes of a record cut off at the end of %s\n", reader.trailingBytes(),
+                        path);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 1) {
+            System.out.println("Usage: java ConnectFourReplay records [openingPlies] [threads]");
+            return;
+        }
+        Path path = Paths.get(args[0]);
+        int openingPlies = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        Stats stats = replay(path, openingPlies, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%,d games replayed in %.2f s (%,.0f games/s) on %d threads, %,d invalid\n", stats.games,
+                seconds, stats.games / seconds, threads, stats.invalid);
+        if (stats.games == 0) {
+            return;
+        }
+        System.out.printf("First player won %.2f%%, second won %.2f%%, drawn %.2f%%, unfinished %.2f%%\n",
+                100.0 * stats.results[0] / stats.games, 100.0 * stats.results[1] / stats.games,
+                100.0 * stats.results[2] / stats.games, 100.0 * stats.results[3] / stats.games);
+        System.out.printf("Average length: %.2f moves\n", stats.averageLength());
+
+        System.out.println("Column  Moves      Share");
+        for (int column = 0; column < ConnectFourBoard.WIDTH; column++) {
+            System.out.printf("%6d  %,-9d  %5.2f%%\n", column, stats.columns[column],
+                    100.0 * stats.columns[column] / stats.moves);
+        }
+
+        System.out.println("Opening  Games      First wins  Second wins");
+        for (int opening = 0; opening < stats.openingGames.length; opening++) {
+            long games = stats.openingGames[opening];
+            if (games > 0) {
+                System.out.printf("%-7s  %,-9d  %9.2f%%  %10.2f%%\n", openingName(opening, openingPlies), games,
+                        100.0 * stats.openingFirstWins[opening] / games,
+                        100.0 * stats.openingSecondWins[opening] / games);
+            }
+        }
+    }
+
+    /**
+     * @return The columns of an opening, such as "3-3-2"
+     */
+    static String openingName(int opening, int plies) {
+        StringBuilder name = new StringBuilder();
+        for (int i = plies - 1; i >= 0; i--) {
+            int column = opening / (int) Math.pow(ConnectFourBoard.WIDTH, i) % ConnectFourBoard.WIDTH;
+            name.append(name.length() > 0 ? "-" : "").append(column);
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,415 @@
+/**
+ * Computer player for Connect Four. Searches a position with negamax and
+ * alpha-beta pruning, trying the centre columns first, and deepens one ply at a
+ * time until the game is solved or the time budget runs out.
+ *
+ * Scores follow the usual solver convention: a positive score means the player
+ * to move wins, and the sooner the win the higher the score. Winning with your
+ * n-th disc scores 22 - n, losing to the opponent's n-th disc scores n - 22,
+ * and a draw scores 0.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConnectFourSolver {
+    private static final int SIZE = ConnectFourBoard.SIZE;
+    private static final int[] COLUMN_ORDER = { 3, 2, 4, 1, 5, 0, 6 }; // Centre columns first
+    private static final long DEFAULT_TABLE_BYTES = 64L << 20; // 64 MB
+
+    /**
+     * The outcome of a search.
+     */
+    public static class SearchResult {
+        public final int column; // Best column found, or -1 if the board is full
+        public final int score; // Score of the position for the player to move
+        public final boolean exact; // True if the score is the game-theoretic value
+        public final int depth; // Deepest iteration that finished
+        public final long nodes; // Positions visited
+        public final long elapsedNanos; // Time spent searching
+
+        SearchResult(int column, int score, boolean exact, int depth, long nodes, long elapsedNanos) {
+            this.column = column;
+            this.score = score;
+            this.exact = exact;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private final TranspositionTable table;
+    private final int helperIndex; // 0 for a lone or main search thread, above 0 for Lazy SMP helpers
+    private AtomicBoolean stopFlag; // Shared flag that stops every thread of a parallel search
+    private ConnectFourBook book; // Precomputed opening positions, or null
+    private ConnectFourBoard board; // Working copy of the position being searched
+    private long nodes; // Positions visited by the current search
+    private long deadline; // System.nanoTime at which to stop, or 0 for no limit
+    private boolean aborted; // Set once the deadline passes
+    private boolean horizonHit; // Set when the current subtree was cut off by the depth limit
+    private final int[][] columnsByPly = new int[SIZE + 1][ConnectFourBoard.WIDTH]; // Move lists, reused per ply
+    private final int[] moveScores = new int[ConnectFourBoard.WIDTH]; // Scratch space for orderMoves
+
+    /**
+     * Creates a solver with a 64 MB depth-preferred transposition table.
+     */
+    public ConnectFourSolver() {
+        this(new TranspositionTable(DEFAULT_TABLE_BYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+    }
+
+    /**
+     * Creates a solver that uses the given transposition table.
+     *
+     * @param table The table to read and fill while searching
+     */
+    public ConnectFourSolver(TranspositionTable table) {
+        this(table, 0);
+    }
+
+    /**
+     * Creates one thread of a parallel search. Helpers rotate the order of the
+     * root moves and odd helpers start one ply deeper, so that threads sharing
+     * the table spread out over different parts of the tree.
+     *
+     * @param table       The table shared by every thread of the search
+     * @param helperIndex 0 for the main thread, above 0 for helpers
+     */
+    ConnectFourSolver(TranspositionTable table, int helperIndex) {
+        this.table = table;
+        this.helperIndex = helperIndex;
+    }
+
+    /**
+     * Sets a flag that other threads can raise to stop this solver. While a
+     * flag is set, solve also leaves the table generation to the caller.
+     *
+     * @param stopFlag The shared flag, or null to search alone
+     */
+    void setStopFlag(AtomicBoolean stopFlag) {
+        this.stopFlag = stopFlag;
+    }
+
+    /**
+     * Sets an opening book to answer early positions from before searching.
+     *
+     * @param book The book, or null to always search
+     */
+    public void setOpeningBook(ConnectFourBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Solves a position exactly, however long it takes.
+     *
+     * @param position The position to solve; it is not modified
+     * @return The exact score and the best column
+     */
+    public SearchResult solve(ConnectFourBoard position) {
+        return solve(position, 0);
+    }
+
+    /**
+     * Searches a position with iterative deepening until it is solved or the
+     * time limit passes. When time runs out, the result of the deepest finished
+     * iteration is returned and marked as not exact.
+     *
+     * @param position        The position to search; it is not modified
+     * @param timeLimitMillis The time budget, or 0 for no limit
+     * @return The best column found and its score
+     */
+    public SearchResult solve(ConnectFourBoard position, long timeLimitMillis) {
+        long start = System.nanoTime();
+        board = new ConnectFourBoard(position);
+        nodes = 0;
+        aborted = false;
+        deadline = timeLimitMillis > 0 ? start + timeLimitMillis * 1_000_000 : 0;
+        if (stopFlag == null) {
+            table.newSearch(); // A parallel search starts the new generation once for every thread
+        }
+
+        int moves = board.moveCount();
+        if (moves == SIZE) {
+            return new SearchResult(-1, 0, true, 0, 0, System.nanoTime() - start);
+        }
+
+        // Answer from the opening book if the position is in it
+        if (book != null) {
+            long entry = book.lookup(board);
+            if (entry >= 0) {
+                return new SearchResult(ConnectFourBook.column(entry), ConnectFourBook.score(entry), true, 0, 0,
+                        System.nanoTime() - start);
+            }
+        }
+
+        // Take an immediate win without searching
+        for (int column : COLUMN_ORDER) {
+            if (board.canPlay(column) && board.isWinningMove(column)) {
+                return new SearchResult(column, (SIZE + 1 - moves) / 2, true, 1, 1, System.nanoTime() - start);
+            }
+        }
+
+        SearchResult best = null;
+        int firstDepth = Math.min(1 + (helperIndex & 1), SIZE - moves);
+        for (int depth = firstDepth; depth <= SIZE - moves; depth++) {
+            horizonHit = false;
+            long result = searchRoot(depth);
+            if (aborted) {
+                break;
+            }
+
+            best = new SearchResult((int) (result >> 32), (int) result, !horizonHit, depth, nodes,
+                    System.nanoTime() - start);
+            if (!horizonHit) {
+                break; // Nothing was cut off by the depth limit, so the score is exact
+            }
+        }
+
+        if (best == null) {
+            // Not even one ply finished in time, fall back to the first legal column
+            int column = 0;
+            while (!board.canPlay(column)) {
+                column++;
+            }
+            best = new SearchResult(column, 0, false, 0, nodes, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /**
+     * @return The positions visited by the last search
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Searches every move at the root to a fixed depth.
+     *
+     * @param depth The plies to search
+     * @return The best column in the high 32 bits and its score in the low 32 bits
+     */
+    private long searchRoot(int depth) {
+        int[] columns = columnsByPly[board.moveCount()];
+        int count = orderMoves(board.possibleMoves(), columns);
+        rotate(columns, count, helperIndex);
+
+        int alpha = -SIZE / 2;
+        int beta = SIZE / 2;
+        int bestColumn = columns[0];
+        int bestScore = -SIZE;
+        for (int i = 0; i < count; i++) {
+            int column = columns[i];
+            board.play(column);
+            int score = -negamax(-beta, -alpha, depth - 1);
+            board.undo();
+            if (aborted) {
+                break;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestColumn = column;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return ((long) bestColumn << 32) | (bestScore & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Negamax with alpha-beta pruning. Returns the score of the position for the
+     * player to move, or a bound on it if the score falls outside the window.
+     */
+    private int negamax(int alpha, int beta, int depth) {
+        nodes++;
+        if ((nodes & 1023) == 0) {
+            if ((deadline != 0 && System.nanoTime() > deadline) || (stopFlag != null && stopFlag.get())) {
+                aborted = true;
+            }
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        int moves = board.moveCount();
+        int me = board.playerToMove();
+        long possible = board.possibleMoves();
+
+        // Win right away if we can
+        if ((board.winningCells(me) & possible) != 0) {
+            return (SIZE + 1 - moves) / 2;
+        }
+
+        // Keep only the moves that do not hand the opponent an immediate win
+        long threats = board.winningCells(me ^ 1);
+        long forced = possible & threats;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0) {
+                return -(SIZE - moves) / 2; // Two threats at once, we cannot block both
+            }
+            possible = forced;
+        }
+        possible &= ~(threats >> 1); // Never play right below an opponent threat
+        if (possible == 0) {
+            return -(SIZE - moves) / 2;
+        }
+        if (moves >= SIZE - 2) {
+            return 0; // Neither side can win with the last two discs
+        }
+
+        if (depth == 0) {
+            horizonHit = true;
+            return 0; // Unknown, treated as a draw
+        }
+
+        // Tighten the window with the best and worst scores still reachable
+        int min = -(SIZE - 2 - moves) / 2;
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+        int max = (SIZE - 1 - moves) / 2;
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta) {
+                return beta;
+            }
+        }
+
+        long key = board.key();
+        long entry = table.get(key);
+        int tableMove = -1;
+        boolean limited = false; // True if the result depends on a depth-limited search
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            int entryDepth = TranspositionTable.depth(entry);
+            if (entryDepth >= depth) {
+                limited = entryDepth != TranspositionTable.DEPTH_EXACT;
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT) {
+                    horizonHit |= limited;
+                    return score;
+                } else if (bound == TranspositionTable.LOWER && score > alpha) {
+                    alpha = score;
+                } else if (bound == TranspositionTable.UPPER && score < beta) {
+                    beta = score;
+                }
+                if (alpha >= beta) {
+                    horizonHit |= limited;
+                    return score;
+                }
+            }
+        }
+
+        int[] columns = columnsByPly[moves];
+        int count = orderMoves(possible, columns);
+        if (tableMove >= 0) {
+            moveToFront(columns, count, tableMove);
+        }
+
+        boolean outerHorizon = horizonHit;
+        horizonHit = false;
+        int windowAlpha = alpha;
+        int bestScore = -SIZE;
+        int bestColumn = columns[0];
+        for (int i = 0; i < count; i++) {
+            int column = columns[i];
+            board.play(column);
+            int score = -negamax(-beta, -alpha, depth - 1);
+            board.undo();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestColumn = column;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        limited |= horizonHit;
+        horizonHit = outerHorizon | limited;
+
+        int bound;
+        if (bestScore <= windowAlpha) {
+            bound = TranspositionTable.UPPER;
+        } else if (bestScore >= beta) {
+            bound = TranspositionTable.LOWER;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+        table.put(key, bestScore, bound, limited ? depth : TranspositionTable.DEPTH_EXACT, bestColumn);
+        return bestScore;
+    }
+
+    /**
+     * Lists the columns of a set of moves, best first. Moves that create more
+     * winning cells for the player to move come first, and ties keep the
+     * centre-first column order.
+     *
+     * @param possible A bitboard holding one free cell per playable column
+     * @param columns  Receives the ordered columns
+     * @return The number of columns written
+     */
+    private int orderMoves(long possible, int[] columns) {
+        int[] scores = moveScores;
+        long position = board.discs(board.playerToMove());
+        long mask = board.mask();
+        int count = 0;
+
+        for (int column : COLUMN_ORDER) {
+            long move = possible & ConnectFourBoard.columnMask(column);
+            if (move == 0) {
+                continue;
+            }
+            int score = Long.bitCount(ConnectFourBoard.winningCells(position | move, mask | move));
+
+            // Insertion sort, stable so equal scores keep the centre-first order
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                scores[i] = scores[i - 1];
+                columns[i] = columns[i - 1];
+                i--;
+            }
+            scores[i] = score;
+            columns[i] = column;
+        }
+        return count;
+    }
+
+    /**
+     * Rotates a list of columns left by the given number of places.
+     */
+    private static void rotate(int[] columns, int count, int places) {
+        if (count == 0 || places % count == 0) {
+            return;
+        }
+        int[] copy = columns.clone();
+        for (int i = 0; i < count; i++) {
+            columns[i] = copy[(i + places) % count];
+        }
+    }
+
+    /**
+     * Moves a column to the front of the list, keeping the order of the rest.
+     */
+    private static void moveToFront(int[] columns, int count, int column) {
+        for (int i = 0; i < count; i++) {
+            if (columns[i] == column) {
+                System.arraycopy(columns, 0, columns, 1, i);
+                columns[0] = column;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Headless tournament between two Connect Four players. Plays many games on
+ * every core, with the players taking turns to move first, and reports win,
+ * draw and loss rates, a histogram of game lengths and games per second.
+ *
+ * Usage: java ConnectFourTournament playerA playerB games [threads] [thinkMillis] [recordFile]
+ * where a player is "random", "greedy" or "solver". Games are appended to the
+ * optional record file, see ConnectFourRecords and ConnectFourReplay.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConnectFourTournament {
+
+    /**
+     * Results counted from the point of view of player A.
+     */
+    public static class Tally {
+        public long wins; // Games won by player A
+        public long draws;
+        public long losses; // Games won by player B
+        public final long[] lengths = new long[ConnectFourBoard.SIZE + 1]; // Games ending after each move count
+
+        /**
+         * @return The number of games counted
+         */
+        public long games() {
+            return wins + draws + losses;
+        }
+
+        void add(Tally other) {
+            wins += other.wins;
+            draws += other.draws;
+            losses += other.losses;
+            for (int i = 0; i < lengths.length; i++) {
+                lengths[i] += other.lengths[i];
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length < 3) {
+            System.out.println("Usage: java ConnectFourTournament playerA playerB games [threads] [thinkMillis]"
+                    + " [recordFile]");
+            return;
+        }
+        String playerA = args[0];
+        String playerB = args[1];
+        long games = Long.parseLong(args[2]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long thinkMillis = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        ConnectFourRecords.Writer recorder = args.length > 5 ? ConnectFourRecords.Writer.open(Paths.get(args[5]))
+                : null;
+
+        long start = System.nanoTime();
+        Tally tally;
+        try {
+            tally = run(playerA, playerB, games, threads, thinkMillis, System.nanoTime(), recorder);
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Print rates rounded to 2.dp
+        System.out.printf("%s vs %s, %d games on %d threads\n", playerA, playerB, tally.games(), threads);
+        System.out.printf("Wins: %.2f%%  Draws: %.2f%%  Losses: %.2f%%\n", 100.0 * tally.wins / tally.games(),
+                100.0 * tally.draws / tally.games(), 100.0 * tally.losses / tally.games());
+        System.out.printf("Games per second: %.0f\n", tally.games() / seconds);
+        System.out.println("Game length histogram:");
+        for (int length = 0; length < tally.lengths.length; length++) {
+            if (tally.lengths[length] > 0) {
+                System.out.printf("%2d moves: %d\n", length, tally.lengths[length]);
+            }
+        }
+    }
+
+    /**
+     * Plays a tournament. Each thread gets its own players, seeded from one
+     * root seed, and its own tally; the tallies are merged at the end.
+     *
+     * @param playerA     Name of the first player, see ConnectFourPlayer.named
+     * @param playerB     Name of the second player
+     * @param games       Number of games to play
+     * @param threads     Number of threads to play on
+     * @param thinkMillis Time budget per move for solver players
+     * @param seed        Root seed for the players' random choices
+     * @return The combined results, from player A's point of view
+     */
+    public static Tally run(String playerA, String playerB, long games, int threads, long thinkMillis, long seed)
+            throws InterruptedException, ExecutionException {
+        return run(playerA, playerB, games, threads, thinkMillis, seed, null);
+    }
+
+    /**
+     * Plays a tournament and records every game.
+     *
+     * @param recorder Where to append the games, or null not to record them
+     * @see #run(String, String, long, int, long, long)
+     */
+    public static Tally run(String playerA, String playerB, long games, int threads, long thinkMillis, long seed,
+            ConnectFourRecords.Writer recorder) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<Future<Tally>> futures = new ArrayList<>();
+        Tally total = new Tally();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                long share = games / threads + (t < games % threads ? 1 : 0);
+                ConnectFourPlayer a = ConnectFourPlayer.named(playerA, seeds.nextLong(), thinkMillis);
+                ConnectFourPlayer b = ConnectFourPlayer.named(playerB, seeds.nextLong(), thinkMillis);
+                futures.add(pool.submit(() -> playShare(a, b, share, recorder)));
+            }
+            for (Future<Tally> future : futures) {
+                total.add(future.get());
+            }
+        } finally {
+            pool.shutdownNow(); // Also when a game failed, so no worker keeps the JVM alive
+        }
+        return total;
+    }
+
+    /**
+     * Plays one thread's share of the games, swapping who moves first each game.
+     */
+    private static Tally playShare(ConnectFourPlayer a, ConnectFourPlayer b, long games,
+            ConnectFourRecords.Writer recorder) throws IOException {
+        Tally tally = new Tally();
+        ConnectFourBoard board = new ConnectFourBoard();
+        for (long g = 0; g < games; g++) {
+            board.reset();
+            boolean aFirst = (g & 1) == 0;
+            int winner = aFirst ? ConnectFourGame.play(a, b, board) : ConnectFourGame.play(b, a, board);
+
+            if (winner == ConnectFourGame.DRAW) {
+                tally.draws++;
+            } else if ((winner == 0) == aFirst) {
+                tally.wins++;
+            } else {
+                tally.losses++;
+            }
+            tally.lengths[board.moveCount()]++;
+            if (recorder != null) {
+                recorder.append(board, winner);
+            }
+        }
+        return tally;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Console view for a ConnectFourBoard or ConnectKBoard. Keeps the display
+ * characters out of the engines so the boards only ever store bits.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+public class ConnectFourView {
+
+    /**
+     * Displays the board in the same layout as ConnectFour.displayBoard, in a
+     * single write. Callers drawing many frames should keep a
+     * ConnectFourRenderer instead.
+     *
+     * @param board   The board to display
+     * @param symbols The character for player 0 and for player 1
+     */
+    public static void displayBoard(ConnectGrid board, char[] symbols) {
+        ConnectFourRenderer renderer = new ConnectFourRenderer(symbols);
+        try {
+            renderer.appendFrame(board).flush(System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // System.out never throws
+        }
+    }
+}
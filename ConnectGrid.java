@@ -0,0 +1,28 @@
+/**
+ * Read-only view of a Connect Four style grid, whatever its size, so that
+ * renderers can draw ConnectFourBoard and ConnectKBoard alike.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+public interface ConnectGrid {
+
+    /**
+     * @return The number of rows
+     */
+    int rows();
+
+    /**
+     * @return The number of columns
+     */
+    int columns();
+
+    /**
+     * Returns the owner of a cell.
+     *
+     * @param row    The row, counted from the bottom (0) up
+     * @param column The column, counted from the left (0)
+     * @return The player owning the cell, or -1 if it is empty
+     */
+    int cell(int row, int column);
+}
@@ -0,0 +1,271 @@
+/**
+ * Connect Four generalised to any number of rows and columns and any winning
+ * line length K, such as 10 rows by 12 columns, connect-5. Each player's discs
+ * are a bitset spread over as many longs as the board needs, laid out like
+ * ConnectFourBoard: every column owns rows + 1 consecutive bits from the
+ * bottom up, and the extra bit on top is always empty so that walks along a
+ * line stop at the edge of the board instead of wrapping into the next column.
+ *
+ * A move is checked for a win by walking outwards from the new disc along the
+ * four lines through it, at most K - 1 cells each way, so the check costs O(K)
+ * however large the board is.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.util.Arrays;
+
+public class ConnectKBoard implements ConnectGrid {
+    private final int rows;
+    private final int columns;
+    private final int winLength; // Discs in a row needed to win, K
+    private final int columnBits; // Bits used per column, including the sentinel
+    private final int bits; // Bits used by the whole board
+    private final int[] directions; // Bit distance of one step: vertical, horizontal, diagonal (/), diagonal (\)
+
+    private final long[][] discs; // discs[p] holds the discs of player p
+    private final int[] heights; // Number of discs in each column
+    private final int[] history; // Columns played so far, used by undo
+    private int moves; // Number of discs on the board
+
+    /**
+     * Creates an empty board. Player 0 moves first.
+     *
+     * @param rows      The number of rows, at least 1
+     * @param columns   The number of columns, at least 1
+     * @param winLength The number of discs in a row that wins, at least 1
+     */
+    public ConnectKBoard(int rows, int columns, int winLength) {
+        if (rows < 1 || columns < 1 || winLength < 1) {
+            throw new IllegalArgumentException("Rows, columns and win length must all be at least 1");
+        }
+        if ((long) (rows + 1) * columns > Integer.MAX_VALUE - 64) {
+            throw new IllegalArgumentException("The board is too large");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.winLength = winLength;
+        this.columnBits = rows + 1;
+        this.bits = columnBits * columns;
+        this.directions = new int[] { 1, columnBits, columnBits + 1, columnBits - 1 };
+        int words = (bits + 63) >>> 6;
+        this.discs = new long[2][words];
+        this.heights = new int[columns];
+        this.history = new int[rows * columns];
+    }
+
+    /**
+     * Creates a copy of another board, including its move history.
+     *
+     * @param other The board to copy
+     */
+    public ConnectKBoard(ConnectKBoard other) {
+        this(other.rows, other.columns, other.winLength);
+        System.arraycopy(other.discs[0], 0, discs[0], 0, discs[0].length);
+        System.arraycopy(other.discs[1], 0, discs[1], 0, discs[1].length);
+        System.arraycopy(other.heights, 0, heights, 0, columns);
+        System.arraycopy(other.history, 0, history, 0, other.moves);
+        moves = other.moves;
+    }
+
+    /**
+     * Empties the board so it can be reused for a new game.
+     */
+    public void reset() {
+        Arrays.fill(discs[0], 0);
+        Arrays.fill(discs[1], 0);
+        Arrays.fill(heights, 0);
+        moves = 0;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * @return The number of discs in a row that wins
+     */
+    public int winLength() {
+        return winLength;
+    }
+
+    /**
+     * Checks whether a disc can still be dropped into a column.
+     *
+     * @param column The column, between 0 and columns - 1
+     * @return True if the column is not full
+     */
+    public boolean canPlay(int column) {
+        return heights[column] < rows;
+    }
+
+    /**
+     * Drops a disc for the player to move into a column. The caller must check
+     * canPlay first.
+     *
+     * @param column The column, between 0 and columns - 1
+     */
+    public void play(int column) {
+        int index = column * columnBits + heights[column];
+        discs[moves & 1][index >>> 6] |= 1L << index;
+        heights[column]++;
+        history[moves++] = column;
+    }
+
+    /**
+     * Drops a disc for the player to move and reports how the game stands for
+     * that player. Only the four lines through the new disc are walked, so the
+     * cost depends on the win length but not on the size of the board.
+     *
+     * @param column The column, between 0 and columns - 1
+     * @return ConnectFourBoard.OUTCOME_WIN, OUTCOME_DRAW or OUTCOME_NONE
+     */
+    public int playAndCheck(int column) {
+        int player = moves & 1;
+        int index = column * columnBits + heights[column];
+        play(column);
+
+        if (completesLine(discs[player], index)) {
+            return ConnectFourBoard.OUTCOME_WIN;
+        } else if (moves == history.length) {
+            return ConnectFourBoard.OUTCOME_DRAW;
+        }
+        return ConnectFourBoard.OUTCOME_NONE;
+    }
+
+    /**
+     * Checks whether the player to move would win by dropping a disc into a
+     * column. The caller must check canPlay first.
+     *
+     * @param column The column, between 0 and columns - 1
+     * @return True if the move makes a line of the win length
+     */
+    public boolean isWinningMove(int column) {
+        return completesLine(discs[moves & 1], column * columnBits + heights[column]);
+    }
+
+    /**
+     * Takes back the last move played.
+     */
+    public void undo() {
+        int column = history[--moves];
+        heights[column]--;
+        int index = column * columnBits + heights[column];
+        discs[moves & 1][index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * @return The player whose turn it is, 0 or 1
+     */
+    public int playerToMove() {
+        return moves & 1;
+    }
+
+    /**
+     * @return The number of discs on the board
+     */
+    public int moveCount() {
+        return moves;
+    }
+
+    /**
+     * @param index The move number, from 0 for the first move
+     * @return The column that move was played in
+     */
+    public int moveAt(int index) {
+        return history[index];
+    }
+
+    /**
+     * @param column The column, between 0 and columns - 1
+     * @return The number of discs in the column
+     */
+    public int height(int column) {
+        return heights[column];
+    }
+
+    @Override
+    public int cell(int row, int column) {
+        int index = column * columnBits + row;
+        if (isSet(discs[0], index)) {
+            return 0;
+        } else if (isSet(discs[1], index)) {
+            return 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return True if every cell holds a disc
+     */
+    public boolean isFull() {
+        return moves == history.length;
+    }
+
+    /**
+     * Checks whether a player has a winning line anywhere on the board. This
+     * looks at every disc, so prefer playAndCheck after each move.
+     *
+     * @param player The player, 0 or 1
+     * @return True if that player has won
+     */
+    public boolean hasWon(int player) {
+        long[] bitset = discs[player];
+        for (int word = 0; word < bitset.length; word++) {
+            for (long rest = bitset[word]; rest != 0; rest &= rest - 1) {
+                if (completesLine(bitset, (word << 6) + Long.numberOfTrailingZeros(rest))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a disc at a given bit would be part of a winning line,
+     * walking outwards from it along each direction and stopping as soon as a
+     * line is long enough. The bit itself is taken as held whether or not it
+     * is set, so the same walk serves moves played and moves considered.
+     *
+     * @param bitset The discs of the player who owns the disc
+     * @param index  The bit index of the disc
+     * @return True if the disc completes a line of the win length
+     */
+    private boolean completesLine(long[] bitset, int index) {
+        if (winLength == 1) {
+            return true;
+        }
+        for (int d = 0; d < directions.length; d++) {
+            int step = directions[d];
+            int count = 1; // The disc itself
+
+            // Walk towards the lower bits
+            for (int i = index - step; i >= 0 && isSet(bitset, i); i -= step) {
+                if (++count == winLength) {
+                    return true;
+                }
+            }
+
+            // Walk towards the higher bits. Nothing can sit above the disc just played, so
+            // the vertical line only needs the downward walk
+            if (d != 0) {
+                for (int i = index + step; i < bits && isSet(bitset, i); i += step) {
+                    if (++count == winLength) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSet(long[] bitset, int index) {
+        return (bitset[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,541 @@
+/**
+ * GuessingGame as a network service. Any number of players connect at once
+ * and each guesses their own secret number, one guess per line, getting the
+ * same hints as GuessingGame.guessGame. Every connection is served from one
+ * thread through a single Selector, so idle players cost only their socket
+ * and a small record of primitives: the secret, the guess count, and the
+ * state of the number being read. Reading and writing go through one pair of
+ * direct buffers shared by all connections.
+ *
+ * After a correct guess the player gets a new secret and can keep playing.
+ *
+ * Usage: java GuessingGameServer [port] [low high]
+ *        java GuessingGameServer --load host port connections active seconds [low high]
+ * The second form is a local load generator: it opens the given number of
+ * connections, of which the given number play binary-search games flat out
+ * while the rest stay idle, and reports the throughput.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+public class GuessingGameServer {
+    public static final int DEFAULT_PORT = 4242;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int READ_BYTES = 1 << 12; // Most read at once, which bounds the replies one read can queue
+
+    static final byte[] TOO_HIGH = bytes("Good try, but that's too high. Try again\n");
+    static final byte[] TOO_LOW = bytes("Good try, but that's too low. Try again\n");
+    static final byte[] CORRECT = bytes("Yes! You guessed correctly after ");
+    static final byte[] NOT_A_NUMBER = bytes("Please enter a whole number\n");
+    private static final byte[] TRY = bytes(" try! Congratulations.\n");
+    private static final byte[] TRIES = bytes(" tries! Congratulations.\n");
+
+    private final long low;
+    private final long high;
+    private final byte[] welcome;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SplittableRandom random = new SplittableRandom(); // Only used by the selector thread
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE); // Shared by every connection
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private volatile int connections;
+
+    /**
+     * One player's game and the state of the number being read, all in
+     * primitives so that idle connections stay small.
+     */
+    private static final class Connection {
+        long secret;
+        int count; // Guesses made for this secret
+        long value; // The number read so far, negated so that Long.MIN_VALUE fits
+        byte sign; // 0, or -1 after a leading minus
+        byte parse; // PARSE_EMPTY, PARSE_DIGITS or PARSE_INVALID
+        byte[] pending; // Replies the socket would not take yet, rarely used
+        int pendingLength;
+    }
+
+    private static final byte PARSE_EMPTY = 0;
+    private static final byte PARSE_DIGITS = 1;
+    private static final byte PARSE_INVALID = 2;
+
+    /**
+     * Opens the server socket. Call run, or start, to serve players.
+     *
+     * @param port The port to listen on, 0 for any free port
+     * @param low  The smallest secret
+     * @param high The largest secret
+     * @throws IOException If the port cannot be opened
+     */
+    public GuessingGameServer(int port, long low, long high) throws IOException {
+        if (high < low) {
+            throw new IllegalArgumentException("The range is empty");
+        }
+        this.low = low;
+        this.high = high;
+        this.welcome = bytes("Welcome to the Guessing Game!\nI'm thinking of a number between " + low + " and "
+                + high + ". Can you guess it?\n");
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 4096);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Serves players on a new thread.
+     */
+    public void start() {
+        new Thread(() -> {
+            try {
+                run();
+            } catch (IOException e) {
+                System.err.println("Server stopped: " + e.getMessage());
+            }
+        }, "guessing-game-selector").start();
+    }
+
+    /**
+     * @return The port the server is listening on
+     */
+    public int port() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * @return The number of players connected
+     */
+    public int connections() {
+        return connections;
+    }
+
+    /**
+     * Stops serving and drops every player.
+     */
+    public void close() throws IOException {
+        serverChannel.close();
+        selector.wakeup();
+    }
+
+    /**
+     * Serves players on the calling thread until the server is closed.
+     */
+    public void run() throws IOException {
+        try {
+            while (serverChannel.isOpen()) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        try {
+                            accept();
+                        } catch (IOException e) {
+                            // Out of file descriptors, say; the rest are accepted when some are freed
+                        }
+                        continue;
+                    }
+                    try {
+                        if (key.isWritable()) {
+                            writePending(key);
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            read(key);
+                        }
+                    } catch (IOException e) {
+                        drop(key); // The player went away
+                    }
+                }
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+            connections = 0;
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection();
+            newSecret(connection);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connections++;
+
+            writeBuffer.clear();
+            writeBuffer.put(welcome);
+            send(key, connection);
+        }
+    }
+
+    /**
+     * Reads what the player sent and answers every complete line in one write.
+     */
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        readBuffer.clear().limit(READ_BYTES);
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            drop(key);
+            return;
+        }
+
+        writeBuffer.clear();
+        for (int i = 0; i < read; i++) {
+            byte b = readBuffer.get(i);
+            if (b == '\n') {
+                answer(connection);
+                if (writeBuffer.remaining() < 128) {
+                    send(key, connection); // A flood of lines in one read
+                    writeBuffer.clear();
+                }
+            } else {
+                parse(connection, b);
+            }
+        }
+        send(key, connection);
+    }
+
+    /**
+     * Adds one character to the number being read.
+     */
+    private static void parse(Connection connection, byte b) {
+        if (connection.parse == PARSE_INVALID || b == '\r' || b == ' ' || b == '\t') {
+            return;
+        }
+        if (b == '-' && connection.parse == PARSE_EMPTY && connection.sign == 0) {
+            connection.sign = -1;
+        } else if (b >= '0' && b <= '9') {
+            int digit = b - '0';
+            long limit = connection.sign < 0 ? Long.MIN_VALUE : -Long.MAX_VALUE;
+            if (connection.value < (limit + digit) / 10) {
+                connection.parse = PARSE_INVALID; // Would not fit in a long
+            } else {
+                connection.value = connection.value * 10 - digit;
+                connection.parse = PARSE_DIGITS;
+            }
+        } else {
+            connection.parse = PARSE_INVALID;
+        }
+    }
+
+    /**
+     * Answers the line just read into the write buffer, as guessGame would.
+     */
+    private void answer(Connection connection) {
+        if (connection.parse != PARSE_DIGITS) {
+            writeBuffer.put(NOT_A_NUMBER);
+        } else {
+            long guess = connection.sign < 0 ? connection.value : -connection.value;
+            connection.count++;
+            if (guess > connection.secret) {
+                writeBuffer.put(TOO_HIGH);
+            } else if (guess < connection.secret) {
+                writeBuffer.put(TOO_LOW);
+            } else {
+                writeBuffer.put(CORRECT);
+                putCount(connection.count);
+                newSecret(connection);
+            }
+        }
+        connection.value = 0;
+        connection.sign = 0;
+        connection.parse = PARSE_EMPTY;
+    }
+
+    private void putCount(int count) {
+        int digits = 1;
+        for (int rest = count / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int position = writeBuffer.position();
+        for (int i = digits - 1; i >= 0; i--) {
+            writeBuffer.put(position + i, (byte) ('0' + count % 10));
+            count /= 10;
+        }
+        writeBuffer.position(position + digits);
+        writeBuffer.put(digits == 1 && writeBuffer.get(position) == '1' ? TRY : TRIES);
+    }
+
+    private void newSecret(Connection connection) {
+        long span = high - low; // As an unsigned number
+        connection.secret = low + GuessingSimulator.unsignedBelow(random, span + 1);
+        connection.count = 0;
+    }
+
+    /**
+     * Writes the write buffer to the player. Whatever the socket will not take
+     * now is kept with the connection and written when the socket is ready.
+     * Until then nothing more is read from the player, so one that sends but
+     * never reads can queue no more than the replies to a single read.
+     */
+    private void send(SelectionKey key, Connection connection) throws IOException {
+        writeBuffer.flip();
+        if (connection.pending == null) {
+            ((SocketChannel) key.channel()).write(writeBuffer);
+        }
+        int left = writeBuffer.remaining();
+        if (left > 0) {
+            if (connection.pending == null) {
+                connection.pending = new byte[Math.max(left, 256)];
+            } else if (connection.pending.length < connection.pendingLength + left) {
+                connection.pending = Arrays.copyOf(connection.pending,
+                        Math.max(connection.pendingLength + left, connection.pending.length * 2));
+            }
+            writeBuffer.get(connection.pending, connection.pendingLength, left);
+            connection.pendingLength += left;
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void writePending(SelectionKey key) throws IOException {
+        Connection connection = (Connection) key.attachment();
+        if (connection.pending == null) {
+            key.interestOps(SelectionKey.OP_READ);
+            return;
+        }
+        ByteBuffer pending = ByteBuffer.wrap(connection.pending, 0, connection.pendingLength);
+        ((SocketChannel) key.channel()).write(pending);
+        if (pending.hasRemaining()) {
+            System.arraycopy(connection.pending, pending.position(), connection.pending, 0, pending.remaining());
+            connection.pendingLength = pending.remaining();
+        } else {
+            connection.pending = null;
+            connection.pendingLength = 0;
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void drop(SelectionKey key) {
+        if (key.isValid()) {
+            connections--;
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * One connection of the load generator: its place in the current game and
+     * in the line being read.
+     */
+    private static final class Player {
+        final boolean active; // Plays games; idle players only read the welcome
+        long low;
+        long high;
+        long guess;
+        int column; // Position in the line being read
+        byte first; // The line's first character
+        byte hint; // The character where "too high" and "too low" differ
+        long sentAt; // When the last guess went out, in nanoseconds
+
+        Player(boolean active) {
+            this.active = active;
+        }
+    }
+
+    private static final int HINT_COLUMN = 25; // "Good try, but that's too " is 25 characters
+    private static final int CONNECTING = 512; // Connections opened at once by the load generator
+
+    /**
+     * Opens many connections to a server, plays binary-search games flat out on
+     * some of them and leaves the rest idle, all from one selector thread, then
+     * prints the throughput and the latency of the answers.
+     *
+     * @param address     The server
+     * @param connections The number of connections to open
+     * @param active      How many of them play
+     * @param seconds     How long to play for, once every connection is open
+     * @param low         The smallest secret the server picks
+     * @param high        The largest secret the server picks
+     */
+    static void load(InetSocketAddress address, int connections, int active, int seconds, long low, long high)
+            throws IOException {
+        Selector selector = Selector.open();
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        ByteBuffer writeBuffer = ByteBuffer.allocateDirect(32);
+        long[] latencies = new long[64]; // latencies[b] counts answers taking 2^b to 2^(b+1) nanoseconds
+        long games = 0;
+        long guesses = 0;
+        int opened = 0;
+        int connected = 0;
+        int failed = 0;
+        long start = System.nanoTime();
+        long playing = 0; // When every connection was open
+        long end = Long.MAX_VALUE;
+        int stride = Math.max(connections / Math.max(active, 1), 1); // Spreads the active players out
+
+        while (System.nanoTime() < end) {
+            // Keep a bounded number of connects in flight so the accept backlog never overflows
+            while (opened < connections && opened - connected - failed < CONNECTING) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.connect(address);
+                channel.register(selector, SelectionKey.OP_CONNECT,
+                        new Player(opened % stride == 0 && opened / stride < active));
+                opened++;
+            }
+            if (playing == 0 && connected + failed == connections) {
+                playing = System.nanoTime();
+                end = playing + seconds * 1_000_000_000L;
+                games = 0;
+                guesses = 0;
+                Arrays.fill(latencies, 0);
+                System.out.printf("%,d connections open in %.2f s (%,d failed)\n", connected,
+                        (playing - start) / 1e9, failed);
+            }
+
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                SocketChannel channel = (SocketChannel) key.channel();
+                Player player = (Player) key.attachment();
+                try {
+                    if (key.isConnectable()) {
+                        channel.finishConnect();
+                        key.interestOps(SelectionKey.OP_READ);
+                        connected++;
+                        continue;
+                    }
+                    readBuffer.clear();
+                    int read = channel.read(readBuffer);
+                    if (read < 0) {
+                        throw new IOException("Closed by the server");
+                    }
+                    for (int i = 0; i < read; i++) {
+                        byte b = readBuffer.get(i);
+                        if (b != '\n') {
+                            if (player.column == 0) {
+                                player.first = b;
+                            } else if (player.column == HINT_COLUMN) {
+                                player.hint = b;
+                            }
+                            player.column++;
+                            continue;
+                        }
+                        player.column = 0;
+                        if (!player.active) {
+                            continue;
+                        }
+                        if (player.first == 'I') { // "I'm thinking of a number..."
+                            player.low = low;
+                            player.high = high;
+                        } else if (player.first == 'G') {
+                            latencies[63 - Long.numberOfLeadingZeros(System.nanoTime() - player.sentAt)]++;
+                            guesses++;
+                            if (player.hint == 'h') {
+                                player.high = player.guess - 1;
+                            } else {
+                                player.low = player.guess + 1;
+                            }
+                        } else if (player.first == 'Y') {
+                            latencies[63 - Long.numberOfLeadingZeros(System.nanoTime() - player.sentAt)]++;
+                            guesses++;
+                            games++;
+                            player.low = low;
+                            player.high = high;
+                        } else {
+                            continue; // The welcome line
+                        }
+                        player.guess = GuessingSimulator.middle(player.low, player.high);
+                        writeBuffer.clear();
+                        writeBuffer.put(bytes(Long.toString(player.guess))).put((byte) '\n').flip();
+                        player.sentAt = System.nanoTime();
+                        channel.write(writeBuffer); // A guess is tiny, the socket always takes it
+                    }
+                } catch (IOException e) {
+                    if (key.isConnectable()) {
+                        failed++;
+                    } else {
+                        connected--;
+                        failed++;
+                    }
+                    key.cancel();
+                    channel.close();
+                }
+            }
+        }
+
+        double elapsed = (System.nanoTime() - playing) / 1e9;
+        System.out.printf("%,d connections, %,d playing for %.2f s\n", connected, Math.min(active, connected),
+                elapsed);
+        System.out.printf("%,d games (%,.0f games/s), %,d guesses (%,.0f guesses/s)\n", games, games / elapsed,
+                guesses, guesses / elapsed);
+        System.out.printf("Answer latency: median under %s, 99%% under %s, 99.9%% under %s\n",
+                latencyBound(latencies, guesses, 0.5), latencyBound(latencies, guesses, 0.99),
+                latencyBound(latencies, guesses, 0.999));
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    /**
+     * @return The power of two nanoseconds that the given share of answers came in under, in readable units
+     */
+    private static String latencyBound(long[] latencies, long total, double share) {
+        long seen = 0;
+        for (int b = 0; b < latencies.length; b++) {
+            seen += latencies[b];
+            if (seen >= share * total) {
+                long nanos = 2L << b;
+                return nanos < 1_000_000 ? String.format("%.0f us", nanos / 1e3)
+                        : String.format("%.1f ms", nanos / 1e6);
+            }
+        }
+        return "-";
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--load")) {
+            if (args.length < 6) {
+                System.out.println("Usage: java GuessingGameServer --load host port connections active seconds"
+                        + " [low high]");
+                return;
+            }
+            long low = args.length > 7 ? Long.parseLong(args[6]) : 1;
+            long high = args.length > 7 ? Long.parseLong(args[7]) : 100;
+            load(new InetSocketAddress(args[1], Integer.parseInt(args[2])), Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]), Integer.parseInt(args[5]), low, high);
+            return;
+        }
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long low = args.length > 2 ? Long.parseLong(args[1]) : 1; // 1 to 100, as GuessingGame plays
+        long high = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        GuessingGameServer server = new GuessingGameServer(port, low, high);
+        System.out.println("Guessing game server on port " + server.port() + ", secrets " + low + " to " + high);
+        server.run();
+    }
+}
@@ -0,0 +1,314 @@
+/**
+ * Headless simulator for GuessingGame. Plays guessing strategies against a
+ * host that answers "too high" or "too low", over any range up to the whole
+ * long domain, and reports how many guesses the games took. Games run on a
+ * fork/join pool, with a SplittableRandom split off for every task so a run
+ * is repeatable for a given seed.
+ *
+ * Strategies (pluggable through the Strategy interface):
+ * <ul>
+ * <li>binary: guesses the middle of the values still possible</li>
+ * <li>interpolation: guesses where half the remaining chance of holding the
+ * secret lies, using the distribution secrets are drawn from</li>
+ * <li>noisy: a binary search whose guesses land anywhere in the middle half</li>
+ * <li>random: guesses any value still possible</li>
+ * </ul>
+ * Secrets are drawn uniformly, or skewed towards the low end of the range. An
+ * adversarial host picks no secret at all and always answers so as to keep
+ * the larger part of the range in play, which is the worst case for any
+ * strategy.
+ *
+ * Usage: java GuessingSimulator strategy games [low high] [uniform|skewed] [honest|adversarial]
+ * low and high may be min or max for the ends of the long range.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class GuessingSimulator {
+    private static final int MAX_COUNT = 255; // Games taking more guesses are counted here
+    private static final long LEAF_GAMES = 1 << 16; // Games played by one task without splitting further
+    private static final double SKEW = 3; // Skewed secrets are low + span * u^SKEW for uniform u
+
+    /**
+     * Chooses the next guess from the values still possible.
+     */
+    public interface Strategy {
+        /**
+         * @param low    The smallest value still possible
+         * @param high   The largest value still possible, at least low
+         * @param random Random numbers for this thread
+         * @return The guess; guesses outside [low, high] are moved to the nearest end
+         */
+        long guess(long low, long high, SplittableRandom random);
+    }
+
+    public static final Strategy BINARY = (low, high, random) -> middle(low, high);
+
+    public static final Strategy NOISY = (low, high, random) -> {
+        long quarter = (high - low) >>> 2;
+        return low + quarter + unsignedBelow(random, 2 * quarter + 1);
+    };
+
+    public static final Strategy RANDOM = (low, high, random) -> low + unsignedBelow(random, high - low + 1);
+
+    private final long low;
+    private final long high;
+    private final boolean skewed;
+    private final boolean adversarial;
+
+    /**
+     * Creates a simulator.
+     *
+     * @param low         The smallest possible secret
+     * @param high        The largest possible secret, at least low
+     * @param skewed      Whether secrets are skewed towards low rather than uniform
+     * @param adversarial Whether the host answers adversarially instead of picking a secret
+     */
+    public GuessingSimulator(long low, long high, boolean skewed, boolean adversarial) {
+        if (high < low) {
+            throw new IllegalArgumentException("The range is empty");
+        }
+        this.low = low;
+        this.high = high;
+        this.skewed = skewed;
+        this.adversarial = adversarial;
+    }
+
+    /**
+     * @return A strategy that guesses where half the remaining chance of holding
+     *         the secret lies, for the secrets this simulator draws
+     */
+    public Strategy interpolation() {
+        if (!skewed) {
+            return BINARY; // Half the chance is always at the middle
+        }
+        double span = unsignedToDouble(high - low);
+        return (from, to, random) -> {
+            // Chance of a secret below offset x is (x / span)^(1 / SKEW); aim between the two ends
+            double below = Math.pow(unsignedToDouble(from - low) / span, 1 / SKEW);
+            double above = Math.pow(unsignedToDouble(to - low) / span, 1 / SKEW);
+            double offset = Math.pow((below + above) / 2, SKEW) * span;
+            if (!(offset < unsignedToDouble(to - low))) {
+                return middle(from, to); // Too close for doubles to tell apart
+            }
+            return low + doubleToUnsigned(offset);
+        };
+    }
+
+    /**
+     * Looks up a strategy by name.
+     *
+     * @param name binary, interpolation, noisy or random
+     * @return The strategy
+     */
+    public Strategy strategy(String name) {
+        switch (name) {
+            case "binary":
+                return BINARY;
+            case "interpolation":
+                return interpolation();
+            case "noisy":
+                return NOISY;
+            case "random":
+                return RANDOM;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    /**
+     * Plays one game.
+     *
+     * @param strategy The guesser
+     * @param random   Random numbers for this thread
+     * @return The number of guesses it took
+     */
+    public int play(Strategy strategy, SplittableRandom random) {
+        long from = low;
+        long to = high;
+        long secret = adversarial ? 0 : secret(random);
+        for (int count = 1;; count++) {
+            long guess = Math.min(Math.max(strategy.guess(from, to, random), from), to);
+
+            boolean tooHigh;
+            if (adversarial) {
+                // Say whichever keeps more values possible; only a guess that leaves none is right
+                long below = guess - from;
+                long above = to - guess;
+                if (below == 0 && above == 0) {
+                    return count;
+                }
+                tooHigh = below != 0 && Long.compareUnsigned(below, above) >= 0;
+            } else {
+                if (guess == secret) {
+                    return count;
+                }
+                tooHigh = guess > secret;
+            }
+            if (tooHigh) {
+                to = guess - 1;
+            } else {
+                from = guess + 1;
+            }
+        }
+    }
+
+    /**
+     * Draws a secret from the range.
+     */
+    long secret(SplittableRandom random) {
+        long span = high - low; // As an unsigned number
+        if (!skewed) {
+            return low + unsignedBelow(random, span + 1);
+        }
+        double u = random.nextDouble();
+        double offset = Math.pow(u, SKEW) * unsignedToDouble(span);
+        return low + Math.min(doubleToUnsigned(offset), span);
+    }
+
+    /**
+     * Plays games on the common pool and counts how many guesses each took.
+     *
+     * @param strategy The guesser
+     * @param games    The number of games to play
+     * @param seed     Seed for the random numbers
+     * @return counts[g] is the number of games that took g guesses, with MAX_COUNT
+     *         for games that took that many or more
+     */
+    public long[] simulate(Strategy strategy, long games, long seed) {
+        return ForkJoinPool.commonPool().invoke(new GamesTask(strategy, games, new SplittableRandom(seed)));
+    }
+
+    /**
+     * Plays a number of games, splitting in half until there are few enough.
+     */
+    private class GamesTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+        private final Strategy strategy;
+        private final long games;
+        private final SplittableRandom random;
+
+        GamesTask(Strategy strategy, long games, SplittableRandom random) {
+            this.strategy = strategy;
+            this.games = games;
+            this.random = random;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (games > LEAF_GAMES) {
+                // Split before forking so each half always gets the same numbers
+                GamesTask left = new GamesTask(strategy, games / 2, random.split());
+                GamesTask right = new GamesTask(strategy, games - games / 2, random.split());
+                left.fork();
+                long[] counts = right.compute();
+                long[] other = left.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += other[i];
+                }
+                return counts;
+            }
+            long[] counts = new long[MAX_COUNT + 1];
+            for (long game = 0; game < games; game++) {
+                counts[Math.min(play(strategy, random), MAX_COUNT)]++;
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * @return The middle of [low, high], without overflowing even over the whole long range
+     */
+    static long middle(long low, long high) {
+        return low + ((high - low) >>> 1);
+    }
+
+    /**
+     * @return A uniform number from 0 up to but not including bound, both unsigned;
+     *         a bound of 0 stands for 2^64
+     */
+    static long unsignedBelow(SplittableRandom random, long bound) {
+        if (bound > 0) {
+            return random.nextLong(bound);
+        }
+        if (bound == 0) {
+            return random.nextLong();
+        }
+        // Bound above 2^63: at least half of all longs are below it, so this rarely repeats
+        long r;
+        do {
+            r = random.nextLong();
+        } while (Long.compareUnsigned(r, bound) >= 0);
+        return r;
+    }
+
+    private static double unsignedToDouble(long value) {
+        return value >= 0 ? value : ((value >>> 1) | (value & 1)) * 2.0;
+    }
+
+    private static long doubleToUnsigned(double value) {
+        return value < 0x1p63 ? (long) value : (long) (value / 2) << 1;
+    }
+
+    private static long parseBound(String text) {
+        return text.equals("min") ? Long.MIN_VALUE : text.equals("max") ? Long.MAX_VALUE : Long.parseLong(text);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java GuessingSimulator strategy games [low high] [uniform|skewed]"
+                    + " [honest|adversarial]");
+            return;
+        }
+        long games = Long.parseLong(args[1]);
+        long low = args.length > 3 ? parseBound(args[2]) : 1; // 1 to 100, as GuessingGame plays
+        long high = args.length > 3 ? parseBound(args[3]) : 100;
+        boolean skewed = args.length > 4 && args[4].equals("skewed");
+        boolean adversarial = args.length > 5 && args[5].equals("adversarial");
+        GuessingSimulator simulator = new GuessingSimulator(low, high, skewed, adversarial);
+        Strategy strategy = simulator.strategy(args[0]);
+
+        long start = System.nanoTime();
+        long[] counts = simulator.simulate(strategy, games, 5);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long total = 0;
+        int fewest = -1;
+        int most = 0;
+        for (int g = 0; g <= MAX_COUNT; g++) {
+            total += g * counts[g];
+            if (counts[g] > 0) {
+                fewest = fewest < 0 ? g : fewest;
+                most = g;
+            }
+        }
+        System.out.printf("%,d games in %.2f s (%,.0f games/s)\n", games, seconds, games / seconds);
+        System.out.printf("Guesses: mean %.3f, fewest %d, most %d%s, median %d, 90%% %d, 99%% %d\n",
+                (double) total / games, fewest, most, most == MAX_COUNT ? "+" : "", quantile(counts, games, 0.5),
+                quantile(counts, games, 0.9), quantile(counts, games, 0.99));
+        System.out.println("Guesses  Games");
+        for (int g = 0; g <= MAX_COUNT; g++) {
+            if (counts[g] > 0) {
+                System.out.printf("%7d  %,d\n", g, counts[g]);
+            }
+        }
+    }
+
+    /**
+     * @return The smallest guess count that at least the given share of games needed no more than
+     */
+    private static int quantile(long[] counts, long games, double share) {
+        long seen = 0;
+        for (int g = 0; g < counts.length; g++) {
+            seen += counts[g];
+            if (seen >= share * games) {
+                return g;
+            }
+        }
+        return counts.length - 1;
+    }
+}
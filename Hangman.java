@@ -7,6 +7,8 @@
  * @version 1.0
 */
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Random;
 import java.util.Scanner;
 
@@ -17,24 +19,31 @@ public class Hangman {
      * The entry point of the program.
      * 
      * @param args The command-line arguments containing optional list of words to
-     *             guess from.
+     *             guess from, or --words and a word list file with one word per line.
+     * @throws IOException If the word list file cannot be read
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         scanner = new Scanner(System.in);
 
-        String[] wordArray;
+        WordDictionary dictionary;
         // If there are no command line arguments, default to list of fruit
         if (args.length == 0) {
-            wordArray = new String[] { "apple", "pear", "banana", "orange" };
+            dictionary = WordDictionary.fromWords(new String[] { "apple", "pear", "banana", "orange" });
+        } else if (args.length == 2 && args[0].equals("--words")) {
+            dictionary = WordDictionary.load(Paths.get(args[1]));
         } else {
-            wordArray = args;
+            dictionary = WordDictionary.fromWords(args);
+        }
+        if (dictionary.size() == 0) {
+            System.out.println("There are no words to guess!");
+            return;
         }
 
-        String word = selectWord(wordArray); // Select a random word in array to guess
-        int lengthOfWord = word.length();
+        Random random = new Random();
+        String word = dictionary.word(dictionary.draw(random)); // Draw a random word to guess
         int lives = 10; // Number of incorrect attempts allowed so game ends at some point, per
                         // traditional Hangman rules
-        String stars = createStars(lengthOfWord); // Create placeholder stars for word based on it's length
+        String stars = createStars(word.length()); // Create placeholder stars for word based on it's length
         int countMissed = 0; // Set counter for missed guesses to 0
 
         playGame(stars, word, lives, countMissed); // Play Game at least once
@@ -47,8 +56,14 @@ public class Hangman {
             String ans = scanner.nextLine(); // User answer
 
             if (ans.equals("y")) {
-                String[] newWordArray = updateArray(wordArray, word);
-                playGameAgain(word, newWordArray, lives); // Play the game again, with the word already played removed
+                // Words already played are never drawn again
+                if (dictionary.remaining() == 0) {
+                    System.out.println("There are no more words to guess!");
+                    playAgain = false;
+                } else {
+                    word = dictionary.word(dictionary.draw(random));
+                    playGame(createStars(word.length()), word, lives, 0);
+                }
             } else if (ans.equals("n")) {
                 playAgain = false;
             } else {
@@ -81,11 +96,7 @@ public class Hangman {
      * @return A string of asterisks with the same length as the word.
      */
     public static String createStars(int lengthOfWord) {
-        String stars = "";
-        for (int i = 0; i < lengthOfWord; i++) { // Append the empty string of stars with stars count (length of word)
-            stars += "*";
-        }
-        return stars;
+        return "*".repeat(lengthOfWord); // One star per letter, built in a single allocation
     }
 
     /**
@@ -155,39 +166,34 @@ public class Hangman {
      * @param lives       The number of misses the user gets to make before game
      *                    ends
      * @param countMissed missed letters set to 0
-     * @return The updated representation of the word with correctly guessed letters
-     *         revealed.
      */
     public static void playGame(String stars, String word, int lives, int countMissed) {
-        while (lives > 0) {
-
-            String guess = getGuess(stars); // get the guess and prompt the users with the stars in place
-            if (word.contains(guess)) {
-                // Check if char already shown in stars
-                if (stars.contains(guess)) {
-                    System.out.println(guess + " is already in word");
-                    lives -= 1; // Reduce number of lives because they failed to do it correctly
-                }
-                // Else reveal it
-                else {
-                    stars = updateStars(word, stars, guess.charAt(0)); // so that the updatedStars method can work, I
-                                                                       // retrieved the char with .charAt()
-                    // Check again if the guess is correct
-                    if (stars.equals(word)) {
-                        System.out.println(congrats(word, countMissed));
-                        break;
-                    }
+        HangmanState state = new HangmanState(word, lives);
+        // Show any letters already revealed in stars, without costing lives
+        for (int i = 0; i < stars.length(); i++) {
+            if (stars.charAt(i) != HangmanState.HIDDEN) {
+                state.reveal(stars.charAt(i));
+            }
+        }
+
+        while (!state.isOver()) {
+
+            String guess = getGuess(state.toString()); // get the guess and prompt the users with the stars in place
+            int result = state.guess(guess.charAt(0));
+            if (result == HangmanState.REPEAT) {
+                System.out.println(guess + " is already in word"); // They lose a life for it
+            } else if (result == HangmanState.HIT) {
+                if (state.isSolved()) {
+                    System.out.println(congrats(word, countMissed + state.missed()));
                 }
             }
 
             // If the guess is not in the word...
             else {
-                countMissed += 1; // track misses
-                lives -= 1; // reduce lives
                 System.out.println(guess + " is not in the word");
                 // End game if lives are exhausted
-                if (lives == 0) {
-                    System.out.println(congrats(word, countMissed));
+                if (state.lives() <= 0) {
+                    System.out.println(congrats(word, countMissed + state.missed()));
                 }
             }
         }
@@ -223,8 +229,11 @@ public class Hangman {
     public static String[] updateArray(String[] wordArray, String word) {
         // new array to add new words if they haven't been played
         String[] newWordArray = new String[wordArray.length - 1];
-        for (int i = 0, k = 0; i < wordArray.length; i++) {
-            if (wordArray[i] != word) { // only putting word that are not the one just played
+        boolean removed = false; // Only remove the first copy so the new array is always full
+        for (int i = 0, k = 0; i < wordArray.length && k < newWordArray.length; i++) {
+            if (!removed && wordArray[i].equals(word)) { // skip the word just played, compared by content
+                removed = true;
+            } else {
                 newWordArray[k] = wordArray[i];
                 k++;
             }
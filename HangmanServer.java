@@ -0,0 +1,501 @@
+/**
+ * Hangman game service for many players at once over a line-based TCP
+ * protocol. Every connection is served by its own thread: a virtual thread
+ * when the JVM has them (Java 21 and later), otherwise a small-stack platform
+ * thread. Games live in sessions kept in a concurrent map, so a player can
+ * reconnect and carry on, and sessions left idle for too long are evicted in
+ * the background. All sessions share one read-only dictionary.
+ *
+ * Protocol, one command or reply per line:
+ * <pre>
+ * server: SESSION id               on connecting
+ * client: NEW                      server: GAME shown lives
+ * client: GUESS x  (or just x)     server: HIT|MISS|REPEAT shown lives missed
+ *                                  or, when the game ends, WIN|LOSE word missed
+ * client: RESUME id                server: GAME shown lives, or SESSION id if no game is running
+ * client: QUIT                     server: BYE
+ * </pre>
+ * Anything else gets "ERROR message". Session ids are 32 hex digits drawn
+ * from a SecureRandom, so one player cannot guess another's and resume it.
+ *
+ * Usage: java HangmanServer [port] [wordFile]
+ *        java HangmanServer --client host port clients games
+ * The second form is a local test harness: it opens the given number of
+ * connections at once and has each play the given number of games.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HangmanServer {
+    public static final int DEFAULT_PORT = 4040;
+    private static final int LIVES = 10; // As in Hangman.main
+    private static final long DEFAULT_IDLE_MILLIS = 5 * 60 * 1000;
+    private static final int LINE_BYTES = 128; // Longest command accepted
+    private static final int READ_BUFFER = 512; // Per connection, kept small so many connections fit
+    private static final int ID_BYTES = 16; // 128 random bits per session id
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final WordDictionary dictionary; // Shared by every session and never changed
+    private final long idleMillis;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = newConnectionExecutor();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "hangman-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom ids = new SecureRandom();
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * One player's game, which outlives the connection that started it until
+     * it has been idle for too long.
+     */
+    private static class Session {
+        final String id; // Unguessable, in hex
+        HangmanState state; // Null until the first game; guarded by the session's lock
+        volatile long lastActive;
+        volatile Socket connection; // The connection currently using the session
+
+        Session(String id, Socket connection) {
+            this.id = id;
+            this.connection = connection;
+            this.lastActive = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Opens the server socket. Call start to begin accepting players.
+     *
+     * @param dictionary The words to play with
+     * @param port       The port to listen on, 0 for any free port
+     * @param idleMillis How long a session may go unused before it is evicted
+     * @throws IOException If the port cannot be opened
+     */
+    public HangmanServer(WordDictionary dictionary, int port, long idleMillis) throws IOException {
+        if (dictionary.size() == 0) {
+            throw new IllegalArgumentException("The dictionary has no words");
+        }
+        this.dictionary = dictionary;
+        this.idleMillis = idleMillis;
+        this.serverSocket = new ServerSocket(port, 1024);
+    }
+
+    /**
+     * Creates the executor that runs one task per connection: virtual threads
+     * if this JVM has them, found by reflection so the code still builds on
+     * older JDKs, or else platform threads with small stacks.
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(null, r, "hangman-connection", 256 * 1024);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Starts accepting connections and evicting idle sessions, in the
+     * background.
+     */
+    public void start() {
+        long period = Math.max(idleMillis / 4, 10);
+        evictor.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+        Thread acceptor = new Thread(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    socket.setTcpNoDelay(true);
+                    connections.execute(() -> serve(socket));
+                } catch (IOException e) {
+                    if (!serverSocket.isClosed()) {
+                        System.err.println("Accept failed: " + e.getMessage());
+                    }
+                }
+            }
+        }, "hangman-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * @return The port the server is listening on
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return The number of sessions held
+     */
+    public int sessions() {
+        return sessions.size();
+    }
+
+    /**
+     * @return The number of sessions evicted for being idle
+     */
+    public long evicted() {
+        return evicted.get();
+    }
+
+    /**
+     * Stops accepting players and closes every connection.
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+        evictor.shutdownNow();
+        for (Session session : sessions.values()) {
+            closeQuietly(session.connection);
+        }
+        sessions.clear();
+        connections.shutdownNow();
+    }
+
+    /**
+     * Removes the sessions that have been idle too long and drops their
+     * connections.
+     */
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        for (Session session : sessions.values()) {
+            if (session.lastActive < cutoff && sessions.remove(session.id, session)) {
+                evicted.incrementAndGet();
+                closeQuietly(session.connection);
+            }
+        }
+    }
+
+    /**
+     * Plays with one connection until it quits or is closed. The buffers are
+     * made once per connection and reused for every line.
+     */
+    private void serve(Socket socket) {
+        byte[] line = new byte[LINE_BYTES];
+        byte[] reply = new byte[LINE_BYTES + HangmanState.MAX_LENGTH];
+        Session session = newSession(socket);
+
+        try (Socket connection = socket) {
+            InputStream in = new BufferedInputStream(connection.getInputStream(), READ_BUFFER);
+            OutputStream out = connection.getOutputStream();
+            send(out, reply, sessionLine(reply, session));
+
+            int length;
+            while ((length = readLine(in, line)) >= 0) {
+                if (!sessions.containsKey(session.id)) {
+                    break; // Evicted while the player was away
+                }
+                session.lastActive = System.currentTimeMillis();
+                int size;
+                if (is(line, length, "QUIT")) {
+                    sessions.remove(session.id, session); // Unlike a dropped connection, there is nothing to resume
+                    send(out, reply, put(reply, 0, "BYE"));
+                    break;
+                } else if (is(line, length, "NEW")) {
+                    size = newGame(session, reply);
+                } else if (is(line, length, "RESUME")) {
+                    Session resumed = resume(session, line, length, socket);
+                    if (resumed == null) {
+                        size = put(reply, 0, "ERROR no such session");
+                    } else {
+                        session = resumed;
+                        size = showGame(session, reply);
+                    }
+                } else if (is(line, length, "GUESS") && length == 7) {
+                    size = guess(session, line[6], reply);
+                } else if (length == 1) {
+                    size = guess(session, line[0], reply);
+                } else {
+                    size = put(reply, 0, "ERROR unknown command");
+                }
+                send(out, reply, size);
+            }
+        } catch (IOException e) {
+            // The player went away; the session stays until it is resumed or evicted
+        }
+    }
+
+    /**
+     * Registers a session under a new random id.
+     */
+    private Session newSession(Socket socket) {
+        byte[] random = new byte[ID_BYTES];
+        while (true) {
+            ids.nextBytes(random);
+            char[] id = new char[2 * ID_BYTES];
+            for (int i = 0; i < ID_BYTES; i++) {
+                id[2 * i] = HEX[(random[i] >> 4) & 0xF];
+                id[2 * i + 1] = HEX[random[i] & 0xF];
+            }
+            Session session = new Session(new String(id), socket);
+            if (sessions.putIfAbsent(session.id, session) == null) {
+                return session; // A repeat of 128 random bits will not happen, but costs nothing to rule out
+            }
+        }
+    }
+
+    private int newGame(Session session, byte[] reply) {
+        synchronized (session) {
+            String word = dictionary.word(ThreadLocalRandom.current().nextInt(dictionary.size()));
+            session.state = new HangmanState(word, LIVES);
+        }
+        return showGame(session, reply);
+    }
+
+    /**
+     * Moves another session onto this connection and drops the session the
+     * connection started with.
+     */
+    private Session resume(Session current, byte[] line, int length, Socket socket) {
+        if (length != 7 + 2 * ID_BYTES) {
+            return null;
+        }
+        Session resumed = sessions.get(new String(line, 7, 2 * ID_BYTES, StandardCharsets.US_ASCII));
+        if (resumed == null) {
+            return null;
+        }
+        if (resumed != current) {
+            sessions.remove(current.id, current);
+            Socket previous = resumed.connection;
+            resumed.connection = socket;
+            if (previous != socket) {
+                closeQuietly(previous); // A session is played from one connection at a time
+            }
+        }
+        resumed.lastActive = System.currentTimeMillis();
+        return resumed;
+    }
+
+    private int showGame(Session session, byte[] reply) {
+        synchronized (session) {
+            HangmanState state = session.state;
+            if (state == null || state.isOver()) {
+                return sessionLine(reply, session);
+            }
+            int size = put(reply, 0, "GAME ");
+            size += state.render(reply, size);
+            reply[size++] = ' ';
+            return putNumber(reply, size, state.lives());
+        }
+    }
+
+    private int guess(Session session, byte letter, byte[] reply) {
+        synchronized (session) {
+            HangmanState state = session.state;
+            if (state == null || state.isOver()) {
+                return put(reply, 0, "ERROR no game, send NEW");
+            }
+            int result = state.guess((char) letter);
+            int size;
+            if (state.isOver()) {
+                size = put(reply, 0, state.isSolved() ? "WIN " : "LOSE ");
+                size = put(reply, size, state.word());
+            } else {
+                size = put(reply, 0, result == HangmanState.HIT ? "HIT "
+                        : result == HangmanState.MISS ? "MISS " : "REPEAT ");
+                size += state.render(reply, size);
+                reply[size++] = ' ';
+                size = putNumber(reply, size, state.lives());
+            }
+            reply[size++] = ' ';
+            return putNumber(reply, size, state.missed());
+        }
+    }
+
+    private static int sessionLine(byte[] reply, Session session) {
+        return put(reply, put(reply, 0, "SESSION "), session.id);
+    }
+
+    /**
+     * Reads one line into the buffer, without the line ending. Characters past
+     * the end of the buffer are dropped.
+     *
+     * @return The length of the line, or -1 at the end of the stream
+     */
+    private static int readLine(InputStream in, byte[] line) throws IOException {
+        int length = 0;
+        int b;
+        while ((b = in.read()) >= 0 && b != '\n') {
+            if (length < line.length) {
+                line[length++] = (byte) b;
+            }
+        }
+        if (b < 0 && length == 0) {
+            return -1;
+        }
+        return length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+    }
+
+    /**
+     * @return Whether the line is the command, or starts with it and a space,
+     *         ignoring case
+     */
+    private static boolean is(byte[] line, int length, String command) {
+        int n = command.length();
+        if (length < n || (length > n && line[n] != ' ')) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if ((line[i] & ~0x20) != command.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int put(byte[] out, int offset, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            out[offset++] = (byte) text.charAt(i);
+        }
+        return offset;
+    }
+
+    private static int putNumber(byte[] out, int offset, long value) {
+        if (value < 0) {
+            out[offset++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
+    private static void send(OutputStream out, byte[] reply, int size) throws IOException {
+        reply[size++] = '\n';
+        out.write(reply, 0, size);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--client")) {
+            if (args.length < 5) {
+                System.out.println("Usage: java HangmanServer --client host port clients games");
+                return;
+            }
+            runClients(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+            return;
+        }
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        WordDictionary dictionary = args.length > 1 ? WordDictionary.load(Paths.get(args[1]))
+                : WordDictionary.fromWords(new String[] { "apple", "pear", "banana", "orange" });
+        HangmanServer server = new HangmanServer(dictionary, port, DEFAULT_IDLE_MILLIS);
+        server.start();
+        System.out.println("Hangman server on port " + server.port() + " with " + dictionary.size() + " words");
+    }
+
+    /**
+     * Local test harness: connects the given number of clients at once, then
+     * has each play its games by guessing letters in order of how common they
+     * are in English, and prints how it went.
+     */
+    static void runClients(String host, int port, int clients, int games) throws InterruptedException {
+        String order = "etaoinshrdlcumwfgypbvkjxqz";
+        AtomicLong won = new AtomicLong();
+        AtomicLong lost = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch finished = new CountDownLatch(clients);
+        ExecutorService executor = newConnectionExecutor();
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            executor.execute(() -> {
+                try (Socket socket = new Socket(host, port);
+                        BufferedReader in = new BufferedReader(
+                                new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 256);
+                        PrintWriter out = new PrintWriter(socket.getOutputStream(), false)) {
+                    socket.setTcpNoDelay(true);
+                    String reply = in.readLine();
+                    if (reply == null || !reply.startsWith("SESSION ")) {
+                        throw new IOException("Expected SESSION but got " + reply);
+                    }
+                    // Hold every connection open at once before playing
+                    connected.countDown();
+                    connected.await();
+
+                    for (int g = 0; g < games; g++) {
+                        out.print("NEW\n");
+                        out.flush();
+                        reply = in.readLine();
+                        if (reply == null || !reply.startsWith("GAME ")) {
+                            throw new IOException("Expected GAME but got " + reply);
+                        }
+                        for (int i = 0; i < order.length(); i++) {
+                            out.print(order.charAt(i));
+                            out.print('\n');
+                            out.flush();
+                            reply = in.readLine();
+                            if (reply == null || reply.startsWith("ERROR")) {
+                                throw new IOException("Guess failed: " + reply);
+                            } else if (reply.startsWith("WIN ")) {
+                                won.incrementAndGet();
+                                break;
+                            } else if (reply.startsWith("LOSE ")) {
+                                lost.incrementAndGet();
+                                break;
+                            }
+                        }
+                    }
+                    out.print("QUIT\n");
+                    out.flush();
+                    in.readLine();
+                } catch (IOException | InterruptedException e) {
+                    errors.incrementAndGet();
+                    connected.countDown();
+                    System.err.println(e.getMessage());
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        finished.await();
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long played = won.get() + lost.get();
+        System.out.printf("%,d clients played %,d games in %.2f s (%,.0f games/s)\n", clients, played, seconds,
+                played / seconds);
+        System.out.printf("Won %,d, lost %,d, %,d clients failed\n", won.get(), lost.get(), errors.get());
+    }
+}
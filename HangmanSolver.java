@@ -0,0 +1,557 @@
+/**
+ * Automatic Hangman player. It keeps the set of dictionary words that still
+ * fit what has been revealed and the letters that missed, and on each turn
+ * guesses the letter whose answer is expected to tell it the most: the one
+ * that splits the candidates into the most even groups by where the letter
+ * appears (the highest entropy).
+ *
+ * For each word length the dictionary is indexed once into bitsets over the
+ * words of that length: one for each (position, letter) pair and one for each
+ * letter saying which words contain it. After a guess the candidates are
+ * narrowed with a few AND operations per position instead of rescanning the
+ * words. The index is read-only, so one solver can be shared by many threads,
+ * each playing with its own Guesser.
+ *
+ * Usage: java HangmanSolver wordFile [games] [lives] [threads]
+ * Rates a word list by playing the solver against every word (or against
+ * the given number of random words) and reporting how often it loses.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HangmanSolver {
+    private static final int SHARED_DECISIONS = 256; // Guesses with at least this many candidates are remembered
+    private static final String FREQUENCY_ORDER = "etaoinshrdlcumwfgypbvkjxqz"; // Used when no word fits
+
+    private final WordDictionary dictionary;
+    private final LengthIndex[] indexes;
+
+    /**
+     * Index of the dictionary words of one length.
+     */
+    private static class LengthIndex {
+        final int length;
+        final int count; // Number of words
+        final int words; // Longs per bitset
+        final char[] letters; // Word k is letters[k * length] up to letters[(k + 1) * length]
+        final int[] ids; // Dictionary id of word k
+        final long[] at; // Bitset of words with letter c at position p starts at at[(p * 26 + c) * words]
+        final long[] contains; // Bitset of words containing letter c starts at contains[c * words]
+        final long[] plain; // Bitset of words made only of the letters a to z
+        final int[] pairStart; // The letters of word k are pairLetter[pairStart[k]] up to pairLetter[pairStart[k + 1]]
+        final byte[] pairLetter; // Each distinct letter of each word, c - 'a'
+        final long[] pairPositions; // The positions the matching letter fills in the word
+        // Best guess for each position with many candidates, keyed by the word as shown and the letters
+        // guessed. The solver always answers a position the same way, so every game can share these
+        final ConcurrentHashMap<String, Integer> decisions = new ConcurrentHashMap<>();
+
+        LengthIndex(WordDictionary dictionary, int length) {
+            this.length = length;
+            this.count = dictionary.countOfLength(length);
+            this.words = (count + 63) >>> 6;
+            this.letters = new char[count * length];
+            this.ids = new int[count];
+            this.at = new long[length * 26 * words];
+            this.contains = new long[26 * words];
+            this.plain = new long[words];
+            this.pairStart = new int[count + 1];
+            byte[] pairLetter = new byte[count * Math.min(length, 26)];
+            long[] pairPositions = new long[pairLetter.length];
+            long[] cells = new long[26];
+
+            int pairs = 0;
+            for (int k = 0; k < count; k++) {
+                int id = dictionary.idOfLength(length, k);
+                ids[k] = id;
+                long bit = 1L << k;
+                int word = k >>> 6;
+                plain[word] |= bit;
+                for (int p = 0; p < length; p++) {
+                    char c = dictionary.charAt(id, p);
+                    letters[k * length + p] = c;
+                    if (c >= 'a' && c <= 'z') {
+                        at[(p * 26 + c - 'a') * words + word] |= bit;
+                        contains[(c - 'a') * words + word] |= bit;
+                        cells[c - 'a'] |= 1L << p;
+                    } else {
+                        plain[word] &= ~bit;
+                    }
+                }
+                for (int c = 0; c < 26; c++) {
+                    if (cells[c] != 0) {
+                        pairLetter[pairs] = (byte) c;
+                        pairPositions[pairs] = cells[c];
+                        pairs++;
+                        cells[c] = 0;
+                    }
+                }
+                pairStart[k + 1] = pairs;
+            }
+            this.pairLetter = Arrays.copyOf(pairLetter, pairs);
+            this.pairPositions = Arrays.copyOf(pairPositions, pairs);
+        }
+    }
+
+    /**
+     * Creates a solver over a dictionary. Each word length is indexed the first
+     * time a game of that length starts.
+     *
+     * @param dictionary The words the secret word is drawn from
+     */
+    public HangmanSolver(WordDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.indexes = new LengthIndex[HangmanState.MAX_LENGTH + 1];
+    }
+
+    private synchronized LengthIndex index(int length) {
+        if (indexes[length] == null) {
+            indexes[length] = new LengthIndex(dictionary, length);
+        }
+        return indexes[length];
+    }
+
+    /**
+     * Plays one game at a time for one thread. Reuse a Guesser across games to
+     * avoid allocating on every game.
+     */
+    public class Guesser {
+        private LengthIndex index;
+        private long[] candidates = new long[0]; // Bitset of words that still fit
+        private int[] list = new int[64]; // Once few words fit, they are listed here instead
+        private int listSize; // -1 while the bitset is in use
+        private int total; // Number of words that fit
+        private int guessed; // Bit c - 'a' is set for each letter guessed
+        private final char[] key = new char[HangmanState.MAX_LENGTH + 2]; // The word as shown, then the guessed mask
+
+        // Scratch space for scoring guesses: counts of (letter, positions) pairs
+        private long[] slotPositions = new long[1 << 12];
+        private int[] slotLetter = new int[1 << 12]; // Letter + 1, 0 marks an empty slot
+        private int[] slotCount = new int[1 << 12];
+        private int[] used = new int[1 << 11]; // Slots filled in this turn, so they can be cleared
+        private int usedCount;
+        private final int[] containCount = new int[26];
+        private final double[] spread = new double[26];
+
+        /**
+         * Starts a new game.
+         *
+         * @param shown The word as the player first sees it, such as
+         *              HangmanState, with HangmanState.HIDDEN for each hidden letter
+         */
+        public void start(CharSequence shown) {
+            index = index(shown.length());
+            if (candidates.length < index.words) {
+                candidates = new long[index.words];
+            }
+            guessed = 0;
+            listSize = -1;
+            for (int p = 0; p < shown.length(); p++) {
+                key[p] = shown.charAt(p);
+            }
+
+            // Keep the words with the same characters shown and letters where hidden
+            System.arraycopy(index.plain, 0, candidates, 0, index.words);
+            for (int p = 0; p < shown.length(); p++) {
+                if (shown.charAt(p) != HangmanState.HIDDEN) {
+                    filterByCharacter(shown);
+                    break;
+                }
+            }
+            countCandidates();
+        }
+
+        private void filterByCharacter(CharSequence shown) {
+            // Letters already shown count as guessed
+            int length = index.length;
+            for (int p = 0; p < length; p++) {
+                char s = shown.charAt(p);
+                if (s >= 'a' && s <= 'z') {
+                    guessed |= 1 << (s - 'a');
+                }
+            }
+
+            // A hidden cell holds a letter not guessed yet; a shown cell must match
+            for (int k = 0; k < index.count; k++) {
+                candidates[k >>> 6] |= 1L << k;
+                for (int p = 0; p < length; p++) {
+                    int c = index.letters[k * length + p] - 'a';
+                    char s = shown.charAt(p);
+                    boolean hidden = c >= 0 && c < 26 && (guessed & 1 << c) == 0;
+                    if (s == HangmanState.HIDDEN ? !hidden : s != c + 'a') {
+                        candidates[k >>> 6] &= ~(1L << k);
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Narrows the candidates with the answer to a guess.
+         *
+         * @param letter    The letter guessed, a to z
+         * @param positions Bit i is set for each position the letter was revealed at, 0 for a miss
+         */
+        public void update(char letter, long positions) {
+            int c = letter - 'a';
+            guessed |= 1 << c;
+            for (long cells = positions; cells != 0; cells &= cells - 1) {
+                key[Long.numberOfTrailingZeros(cells)] = letter;
+            }
+            if (listSize >= 0) {
+                // Few words left, so check each one's positions for the letter directly
+                int kept = 0;
+                for (int i = 0; i < listSize; i++) {
+                    int k = list[i];
+                    if (positionsOf(k, c) == positions) {
+                        list[kept++] = k;
+                    }
+                }
+                listSize = kept;
+                total = kept;
+                return;
+            }
+
+            int words = index.words;
+            long[] at = index.at;
+            if (positions == 0) {
+                int base = c * words;
+                for (int w = 0; w < words; w++) {
+                    candidates[w] &= ~index.contains[base + w];
+                }
+            } else {
+                // The letter is exactly at the revealed positions and nowhere else
+                for (int p = 0; p < index.length; p++) {
+                    int base = (p * 26 + c) * words;
+                    if ((positions >>> p & 1) != 0) {
+                        for (int w = 0; w < words; w++) {
+                            candidates[w] &= at[base + w];
+                        }
+                    } else {
+                        for (int w = 0; w < words; w++) {
+                            candidates[w] &= ~at[base + w];
+                        }
+                    }
+                }
+            }
+            countCandidates();
+        }
+
+        /**
+         * Counts the bitset, and switches to the list once it is sparse enough
+         * that checking words one by one is cheaper than a pass over the bitset.
+         */
+        private void countCandidates() {
+            int count = 0;
+            for (int w = 0; w < index.words; w++) {
+                count += Long.bitCount(candidates[w]);
+            }
+            total = count;
+            if (count <= index.words) {
+                if (list.length < count) {
+                    list = new int[Math.max(count, list.length * 2)];
+                }
+                listSize = 0;
+                for (int w = 0; w < index.words; w++) {
+                    for (long bits = candidates[w]; bits != 0; bits &= bits - 1) {
+                        list[listSize++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return The positions letter c fills in word k
+         */
+        private long positionsOf(int k, int c) {
+            for (int j = index.pairStart[k]; j < index.pairStart[k + 1]; j++) {
+                if (index.pairLetter[j] == c) {
+                    return index.pairPositions[j];
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * @return The number of dictionary words that fit the game so far
+         */
+        public int candidates() {
+            return total;
+        }
+
+        /**
+         * @return The dictionary id of a word that fits the game so far, or -1 if none does
+         */
+        public int candidateId() {
+            if (listSize >= 0) {
+                return listSize > 0 ? index.ids[list[0]] : -1;
+            }
+            for (int w = 0; w < index.words; w++) {
+                if (candidates[w] != 0) {
+                    return index.ids[(w << 6) + Long.numberOfTrailingZeros(candidates[w])];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Chooses the next letter to guess.
+         *
+         * @return A letter from a to z that has not been guessed yet
+         * @throws IllegalStateException If every letter has been guessed
+         */
+        public char nextGuess() {
+            if (guessed == (1 << 26) - 1) {
+                throw new IllegalStateException("Every letter has been guessed");
+            }
+            String position = null;
+            if (total >= SHARED_DECISIONS) {
+                key[index.length] = (char) guessed;
+                key[index.length + 1] = (char) (guessed >>> 16);
+                position = new String(key, 0, index.length + 2);
+                Integer decided = index.decisions.get(position);
+                if (decided != null) {
+                    return (char) ('a' + decided);
+                }
+            }
+
+            int best = -1;
+            if (total == 1) {
+                best = firstUnguessedLetter(candidateId());
+            } else if (total > 1) {
+                best = mostInformativeLetter();
+            }
+            if (best < 0) {
+                // Nothing in the dictionary fits, so fall back to common letters
+                for (int i = 0; i < FREQUENCY_ORDER.length(); i++) {
+                    int c = FREQUENCY_ORDER.charAt(i) - 'a';
+                    if ((guessed & 1 << c) == 0) {
+                        best = c;
+                        break;
+                    }
+                }
+            }
+            if (position != null) {
+                index.decisions.put(position, best);
+            }
+            return (char) ('a' + best);
+        }
+
+        private int firstUnguessedLetter(int id) {
+            for (int i = 0; i < dictionary.length(id); i++) {
+                int c = dictionary.charAt(id, i) - 'a';
+                if (c >= 0 && c < 26 && (guessed & 1 << c) == 0) {
+                    return c;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Scores every unguessed letter in one pass over the candidates. For
+         * each candidate, the positions of each of its unguessed letters are
+         * counted, so that afterwards each letter's groups are known. With N
+         * candidates split into groups of size k, the entropy is
+         * log N - (sum of k log k) / N, so the best letter has the smallest sum.
+         */
+        private int mostInformativeLetter() {
+            Arrays.fill(containCount, 0);
+            if (listSize >= 0) {
+                for (int i = 0; i < listSize; i++) {
+                    countLetters(list[i]);
+                }
+            } else {
+                for (int w = 0; w < index.words; w++) {
+                    for (long bits = candidates[w]; bits != 0; bits &= bits - 1) {
+                        countLetters((w << 6) + Long.numberOfTrailingZeros(bits));
+                    }
+                }
+            }
+
+            // Sum k log k for each letter's groups, including the words without it
+            for (int c = 0; c < 26; c++) {
+                int without = total - containCount[c];
+                spread[c] = without * Math.log(without > 0 ? without : 1);
+            }
+            for (int i = 0; i < usedCount; i++) {
+                int slot = used[i];
+                int k = slotCount[slot];
+                spread[slotLetter[slot] - 1] += k * Math.log(k);
+                slotLetter[slot] = 0;
+            }
+            usedCount = 0;
+
+            int best = -1;
+            for (int c = 0; c < 26; c++) {
+                if (containCount[c] == 0) {
+                    continue; // Guessing it teaches nothing
+                }
+                if (best < 0 || spread[c] < spread[best] - 1e-9
+                        || (spread[c] <= spread[best] + 1e-9 && containCount[c] > containCount[best])) {
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Counts the positions of each unguessed letter of word k.
+         */
+        private void countLetters(int k) {
+            for (int j = index.pairStart[k]; j < index.pairStart[k + 1]; j++) {
+                int c = index.pairLetter[j];
+                if ((guessed & 1 << c) == 0) {
+                    count(c, index.pairPositions[j]);
+                    containCount[c]++;
+                }
+            }
+        }
+
+        /**
+         * Adds one to the count for a (letter, positions) pair.
+         */
+        private void count(int letter, long letterPositions) {
+            if (2 * (usedCount + 1) > slotLetter.length) {
+                grow();
+            }
+            int mask = slotLetter.length - 1;
+            long h = (letterPositions + letter) * 0x9E3779B97F4A7C15L;
+            int slot = (int) (h >>> 40) & mask;
+            while (true) {
+                if (slotLetter[slot] == 0) {
+                    slotLetter[slot] = letter + 1;
+                    slotPositions[slot] = letterPositions;
+                    slotCount[slot] = 1;
+                    if (usedCount == used.length) {
+                        used = Arrays.copyOf(used, usedCount * 2);
+                    }
+                    used[usedCount++] = slot;
+                    return;
+                }
+                if (slotLetter[slot] == letter + 1 && slotPositions[slot] == letterPositions) {
+                    slotCount[slot]++;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void grow() {
+            long[] oldPositions = slotPositions;
+            int[] oldLetter = slotLetter;
+            int[] oldCount = slotCount;
+            int[] oldUsed = used;
+            int oldUsedCount = usedCount;
+
+            slotPositions = new long[oldLetter.length * 2];
+            slotLetter = new int[oldLetter.length * 2];
+            slotCount = new int[oldLetter.length * 2];
+            used = new int[Math.max(oldUsed.length, oldLetter.length)];
+            usedCount = 0;
+            for (int i = 0; i < oldUsedCount; i++) {
+                int slot = oldUsed[i];
+                count(oldLetter[slot] - 1, oldPositions[slot]);
+                slotCount[used[usedCount - 1]] = oldCount[slot];
+            }
+        }
+    }
+
+    /**
+     * Plays one game against a secret word, guessing until the word is solved.
+     *
+     * @param guesser The guesser to play with
+     * @param word    The secret word
+     * @return The number of missed guesses it took
+     */
+    public static int play(Guesser guesser, String word) {
+        HangmanState state = new HangmanState(word, 26);
+        guesser.start(state);
+        while (!state.isSolved()) {
+            char letter = guesser.nextGuess();
+            long hiddenBefore = state.hiddenMask();
+            state.guess(letter);
+            guesser.update(letter, hiddenBefore & ~state.hiddenMask());
+        }
+        return state.missed();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Usage: java HangmanSolver wordFile [games] [lives] [threads]");
+            return;
+        }
+        WordDictionary dictionary = WordDictionary.load(Paths.get(args[0]));
+        long games = args.length > 1 ? Long.parseLong(args[1]) : dictionary.size();
+        int lives = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        boolean everyWord = args.length <= 1;
+        HangmanSolver solver = new HangmanSolver(dictionary);
+
+        // Each thread plays its own games and counts misses into its own histogram
+        long[][] histograms = new long[threads][27];
+        int[] hardest = new int[threads]; // Word id with the most misses seen by each thread
+        int[] hardestMisses = new int[threads];
+        AtomicLong next = new AtomicLong();
+        SplittableRandom seeds = new SplittableRandom(42);
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            SplittableRandom random = seeds.split();
+            workers[t] = new Thread(() -> {
+                Guesser guesser = solver.new Guesser();
+                hardest[thread] = -1;
+                hardestMisses[thread] = -1;
+                for (long game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+                    int id = everyWord ? (int) game : random.nextInt(dictionary.size());
+                    int misses = play(guesser, dictionary.word(id));
+                    histograms[thread][misses]++;
+                    if (misses > hardestMisses[thread]) {
+                        hardestMisses[thread] = misses;
+                        hardest[thread] = id;
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] histogram = new long[27];
+        long totalMisses = 0;
+        long lost = 0;
+        int worst = -1;
+        for (int t = 0; t < threads; t++) {
+            for (int m = 0; m < histogram.length; m++) {
+                histogram[m] += histograms[t][m];
+                totalMisses += m * histograms[t][m];
+                lost += m >= lives ? histograms[t][m] : 0;
+            }
+            if (hardest[t] >= 0 && (worst < 0 || hardestMisses[t] > hardestMisses[worst])) {
+                worst = t;
+            }
+        }
+
+        System.out.printf("%,d games in %.2f s (%,.0f games/s)\n", games, seconds, games / seconds);
+        System.out.printf("Average misses: %.3f\n", (double) totalMisses / Math.max(games, 1));
+        System.out.printf("Lost with %d lives: %,d (%.2f%%)\n", lives, lost, 100.0 * lost / Math.max(games, 1));
+        if (worst >= 0) {
+            System.out.println("Hardest word: " + dictionary.word(hardest[worst]) + " (" + hardestMisses[worst]
+                    + " misses)");
+        }
+        System.out.println("Misses  Games");
+        for (int m = 0; m < histogram.length; m++) {
+            if (histogram[m] > 0) {
+                System.out.printf("%6d  %,d\n", m, histogram[m]);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * The state of one game of Hangman, held in a few primitives so that checking
+ * a guess and showing the masked word never build new Strings. The letters
+ * guessed so far are a 26-bit mask, and for each letter the positions it
+ * fills in the secret word are a 64-bit mask, so a guess is a couple of bit
+ * operations and revealing a letter only touches the cells it fills.
+ *
+ * Words can be up to 64 characters long. Only the letters a to z are hidden;
+ * anything else in the word, such as a hyphen, is shown from the start.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+public class HangmanState implements CharSequence {
+    public static final int MAX_LENGTH = 64;
+    public static final char HIDDEN = '*';
+
+    // Results of a guess
+    public static final int HIT = 0; // The letter is in the word and was not shown yet
+    public static final int MISS = 1; // The letter is not in the word
+    public static final int REPEAT = 2; // The letter is in the word and already shown
+
+    private final String word;
+    private final long[] positions = new long[26]; // Bit i of positions[c - 'a'] is set if word.charAt(i) == c
+    private final int letters; // Bit c - 'a' is set if the letter is in the word
+    private final char[] shown; // The word as the player sees it
+
+    private int guessed; // Bit c - 'a' is set once the letter has been guessed
+    private long hidden; // Bit i is set while position i is still hidden
+    private int lives;
+    private int missed;
+
+    /**
+     * Starts a game.
+     *
+     * @param word  The secret word, in lower case
+     * @param lives The number of wrong guesses allowed
+     * @throws IllegalArgumentException If the word is empty or longer than MAX_LENGTH
+     */
+    public HangmanState(String word, int lives) {
+        int length = word.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Words must have 1 to " + MAX_LENGTH + " characters: " + word);
+        }
+        this.word = word;
+        this.shown = new char[length];
+        this.lives = lives;
+
+        int letterMask = 0;
+        for (int i = 0; i < length; i++) {
+            char c = word.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                positions[c - 'a'] |= 1L << i;
+                letterMask |= 1 << (c - 'a');
+                hidden |= 1L << i;
+                shown[i] = HIDDEN;
+            } else {
+                shown[i] = c;
+            }
+        }
+        this.letters = letterMask;
+    }
+
+    /**
+     * Plays a guess. A miss costs a life and counts as a missed guess; guessing
+     * a letter that is already shown costs a life but is not counted as a
+     * miss, as in the original game.
+     *
+     * @param guess The letter guessed, in either case
+     * @return HIT, MISS or REPEAT
+     */
+    public int guess(char guess) {
+        int letter = Character.toLowerCase(guess) - 'a';
+        if (letter < 0 || letter >= 26 || (letters & 1 << letter) == 0) {
+            guessed |= letter >= 0 && letter < 26 ? 1 << letter : 0;
+            missed++;
+            lives--;
+            return MISS;
+        }
+        if ((guessed & 1 << letter) != 0) {
+            lives--;
+            return REPEAT;
+        }
+        reveal(guess);
+        return HIT;
+    }
+
+    /**
+     * Shows a letter as if it had been guessed, without costing a life or
+     * counting a miss, such as to resume a game part way through. Anything
+     * but a letter is ignored, since it is shown from the start.
+     *
+     * @param letter The letter to show, in either case
+     */
+    public void reveal(char letter) {
+        int index = Character.toLowerCase(letter) - 'a';
+        if (index < 0 || index >= 26) {
+            return;
+        }
+        guessed |= 1 << index;
+        long cells = positions[index];
+        hidden &= ~cells;
+        char c = (char) ('a' + index);
+        for (; cells != 0; cells &= cells - 1) {
+            shown[Long.numberOfTrailingZeros(cells)] = c;
+        }
+    }
+
+    /**
+     * @param letter A letter from a to z
+     * @return Whether the letter has been guessed
+     */
+    public boolean isGuessed(char letter) {
+        return (guessed & 1 << (letter - 'a')) != 0;
+    }
+
+    /**
+     * @return Bit c - 'a' is set for each letter guessed so far
+     */
+    public int guessedMask() {
+        return guessed;
+    }
+
+    /**
+     * @return Bit i is set for each position still hidden
+     */
+    public long hiddenMask() {
+        return hidden;
+    }
+
+    /**
+     * @return Whether every letter of the word is shown
+     */
+    public boolean isSolved() {
+        return hidden == 0;
+    }
+
+    /**
+     * @return Whether the game has ended, won or lost
+     */
+    public boolean isOver() {
+        return hidden == 0 || lives <= 0;
+    }
+
+    public int lives() {
+        return lives;
+    }
+
+    public int missed() {
+        return missed;
+    }
+
+    /**
+     * @return The secret word
+     */
+    public String word() {
+        return word;
+    }
+
+    /**
+     * Copies the word as the player sees it into a buffer.
+     *
+     * @param out    The buffer to write to
+     * @param offset Where to start writing
+     * @return The number of characters written
+     */
+    public int render(char[] out, int offset) {
+        System.arraycopy(shown, 0, out, offset, shown.length);
+        return shown.length;
+    }
+
+    /**
+     * Copies the word as the player sees it into a byte buffer, one byte per
+     * character.
+     *
+     * @param out    The buffer to write to
+     * @param offset Where to start writing
+     * @return The number of bytes written
+     */
+    public int render(byte[] out, int offset) {
+        for (int i = 0; i < shown.length; i++) {
+            out[offset + i] = (byte) shown[i];
+        }
+        return shown.length;
+    }
+
+    @Override
+    public int length() {
+        return shown.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return shown[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(shown, start, end - start);
+    }
+
+    /**
+     * @return The word as the player sees it, such as "b*n*n*"
+     */
+    @Override
+    public String toString() {
+        return new String(shown);
+    }
+}
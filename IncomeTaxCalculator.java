@@ -1,4 +1,6 @@
 package Taxes;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class IncomeTaxCalculator {
@@ -6,7 +8,21 @@ public class IncomeTaxCalculator {
      Calculate income tax based on the gross income.
      **/
     
-    public static void main(String[] args)   {
+    public static void main(String[] args) throws IOException {
+        // With an input and an output file, run the whole payroll in batch mode on every
+        // core instead. An optional third file swaps in a different tax schedule
+        if (args.length >= 2) {
+            TaxSchedule schedule = args.length > 2 ? TaxSchedule.load(Paths.get(args[2])) : TaxSchedule.DEFAULT;
+            PayrollBatch.Summary summary = PayrollParallel.process(Paths.get(args[0]), Paths.get(args[1]), schedule);
+            System.out.printf("Taxed %d employees (%d rows rejected)\n", summary.rows, summary.rejected);
+            System.out.printf("Total gross: GHS %.2f, total tax: GHS %.2f, total take home: GHS %.2f\n",
+                    summary.gross / 100.0, summary.tax / 100.0, summary.net / 100.0);
+            for (int band = 0; band < summary.bandCounts.length; band++) {
+                System.out.printf("Band %d: %d employees\n", band + 1, summary.bandCounts[band]);
+            }
+            return;
+        }
+
         // Take user income input
         Scanner scanner = new Scanner(System.in);
         System.out.print("Enter your income: GHS ");
@@ -26,71 +42,65 @@ public class IncomeTaxCalculator {
         
     }
 
-    static double IncomeTax(double grossIncome) {
-
-        double taxable = grossIncome - 402;
-        double totalTax = 0;
-
-        // Check if taxable amount is greater than 0
-        if (taxable > 0)  {
-
-            //Tax bracket of less than 110 excess income
-            if (taxable <= 110) {
-                totalTax += 0.05 * taxable;
-                return (grossIncome - totalTax);
-            } else {
-                totalTax += 5.5;
-                taxable -= 110;
-            }
-
-            //Tax bracket of less than 130 excess income
-            if (taxable <= 130) {
-                totalTax += 0.1 * taxable;
-                return (grossIncome - totalTax);
-            } else {
-                totalTax += 13;
-                taxable -= 130;
-            }
+    /**
+     * Calculates the take home pay for a gross income with the default tax
+     * schedule. The income is rounded to the nearest pesewa first, and the tax
+     * is exact to the pesewa.
+     *
+     * @param grossIncome The gross income in GHS
+     * @return The income after tax in GHS
+     */
+    public static double IncomeTax(double grossIncome) {
+        long grossPesewas = Math.round(grossIncome * 100);
+        return TaxSchedule.DEFAULT.netPesewas(grossPesewas) / 100.0;
+    }
 
-            //Tax bracket of less than 3000 excess income
-            if (taxable <= 3000) {
-                totalTax += 0.175 * taxable;
-                return (grossIncome - totalTax);
-            } else {
-                totalTax += 525;
-                taxable -= 3000;
-            }
+    /**
+     * Calculates tax and take home pay for many incomes at once with the
+     * default tax schedule, using the branch-free bulk loop.
+     *
+     * @param grossPesewas Gross incomes in pesewas
+     * @param netPesewas   Receives the income after tax for each, in pesewas
+     * @param taxPesewas   Receives the tax on each, in pesewas
+     */
+    public static void IncomeTax(long[] grossPesewas, long[] netPesewas, long[] taxPesewas) {
+        TaxSchedule.DEFAULT.computeBulk(grossPesewas, taxPesewas, netPesewas);
+    }
 
-            //Tax bracket of less than 16395 excess income
-            if (taxable <= 16395) {
-                totalTax += 0.25 * taxable;
-                return (grossIncome - totalTax);
-            } else {
-                totalTax += 4098.75;
-                taxable -= 16395;
-            }
+    /**
+     * Calculates take home pay for many incomes at once, giving the same
+     * results as calling IncomeTax on each one.
+     *
+     * @param grossIncome Gross incomes in GHS
+     * @param netIncome   Receives the income after tax for each, in GHS
+     */
+    public static void IncomeTax(double[] grossIncome, double[] netIncome) {
+        int block = Math.min(grossIncome.length, 4096); // Convert through small reused arrays
+        long[] gross = new long[block];
+        long[] net = new long[block];
+        long[] tax = new long[block];
 
-            //Tax bracket of less than 29963 excess income
-            if (taxable <= 29963) {
-                totalTax += 0.3 * taxable;
-                return (grossIncome - totalTax);
-            } else {
-                totalTax += 8988.90;
-                taxable -= 29963;
+        for (int start = 0; start < grossIncome.length; start += block) {
+            int count = Math.min(block, grossIncome.length - start);
+            for (int i = 0; i < count; i++) {
+                gross[i] = Math.round(grossIncome[start + i] * 100);
             }
-
-            //Tax bracket of less than 50000 excess income
-            if (taxable <= 50000) {
-                totalTax += 0.35 * taxable;
-                return (grossIncome - totalTax);
-            } else {
-                totalTax += 17500;
-                return (grossIncome - totalTax);
+            TaxSchedule.DEFAULT.computeBulk(gross, tax, net, count);
+            for (int i = 0; i < count; i++) {
+                netIncome[start + i] = net[i] / 100.0;
             }
-
-        // Handle the case where income is exactly 0
-        } else {
-            return (grossIncome - totalTax);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Calculates the gross income needed for a given take home pay with the
+     * default tax schedule. The inverse of IncomeTax, exact to the pesewa.
+     *
+     * @param netIncome The take home pay wanted, in GHS
+     * @return The smallest gross income in GHS that gives that take home pay
+     */
+    public static double GrossIncome(double netIncome) {
+        long netPesewas = Math.round(netIncome * 100);
+        return TaxSchedule.DEFAULT.grossForNet(netPesewas) / 100.0;
+    }
+}
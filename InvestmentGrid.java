@@ -0,0 +1,381 @@
+/**
+ * Evaluates TreasuryBillYields over every combination of principal, rate,
+ * compounding frequency, horizon and deposit, and streams the results to a
+ * file. The grid can run to millions of cells, so it is never held in memory:
+ * cells are evaluated in batches, each batch split across a fork/join pool,
+ * and written out in order before the next batch starts.
+ *
+ * The compound factor (1 + r/n)^(nt) only depends on the rate, frequency and
+ * horizon, so it is worked out once for each of those combinations up front,
+ * and every cell is then a few multiplications.
+ *
+ * Cells are ordered by rate, then frequency, then horizon, then principal,
+ * then deposit, with the last varying fastest. Two output formats are written:
+ * <ul>
+ * <li>CSV, one line per cell: principal,rate,periodsPerYear,totalPeriod,deposit,value,interest</li>
+ * <li>Columnar binary: a header holding MAGIC, VERSION, the five axis sizes
+ * and every axis value, then row groups, each an int cell count followed by
+ * that many doubles of value and then that many doubles of interest. Cell
+ * inputs are not stored, as they follow from the cell's position.</li>
+ * </ul>
+ *
+ * Usage: java InvestmentGrid output(.csv|.grid) principals ratesPercent periodsPerYear years deposits
+ * Each axis is a comma separated list such as 1,4,12, or a range from:to:step.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class InvestmentGrid {
+    static final int MAGIC = 0x54424752; // "TBGR"
+    static final int VERSION = 1;
+    private static final int BATCH_CELLS = 1 << 18; // Cells evaluated and written per batch, also the row group size
+    private static final int LINE_BYTES = 256; // Enough for any CSV line
+    private static final byte[] CSV_HEADER = "principal,rate,periodsPerYear,totalPeriod,deposit,value,interest\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final double[] principals;
+    private final double[] rates;
+    private final double[] periodsPerYear;
+    private final double[] totalPeriods;
+    private final double[] deposits;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a grid on the common fork/join pool.
+     *
+     * @param principals     Initial investments
+     * @param rates          Annual interest rates (in decimal form)
+     * @param periodsPerYear Numbers of times interest is compounded each year
+     * @param totalPeriods   Numbers of years the investment will accrue over
+     * @param deposits       Amounts added to the investment in each period after the initial one
+     */
+    public InvestmentGrid(double[] principals, double[] rates, double[] periodsPerYear, double[] totalPeriods,
+            double[] deposits) {
+        this(principals, rates, periodsPerYear, totalPeriods, deposits, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a grid evaluated on the given pool.
+     */
+    public InvestmentGrid(double[] principals, double[] rates, double[] periodsPerYear, double[] totalPeriods,
+            double[] deposits, ForkJoinPool pool) {
+        if (principals.length == 0 || rates.length == 0 || periodsPerYear.length == 0 || totalPeriods.length == 0
+                || deposits.length == 0) {
+            throw new IllegalArgumentException("Every axis needs at least one value");
+        }
+        this.principals = principals.clone();
+        this.rates = rates.clone();
+        this.periodsPerYear = periodsPerYear.clone();
+        this.totalPeriods = totalPeriods.clone();
+        this.deposits = deposits.clone();
+        this.pool = pool;
+    }
+
+    /**
+     * @return The number of cells in the grid
+     */
+    public long cells() {
+        return (long) rates.length * periodsPerYear.length * totalPeriods.length * principals.length
+                * deposits.length;
+    }
+
+    /**
+     * Evaluates every cell and writes them as CSV.
+     *
+     * @param output The file to write, replaced if it exists
+     * @return The number of cells written
+     * @throws IOException If the file cannot be written
+     */
+    public long writeCsv(Path output) throws IOException {
+        return write(output, true);
+    }
+
+    /**
+     * Evaluates every cell and writes them in the columnar binary format.
+     *
+     * @param output The file to write, replaced if it exists
+     * @return The number of cells written
+     * @throws IOException If the file cannot be written
+     */
+    public long writeColumnar(Path output) throws IOException {
+        return write(output, false);
+    }
+
+    private long write(Path output, boolean csv) throws IOException {
+        double[] factors = compoundFactors();
+        long cells = cells();
+        int parts = Math.max(1, pool.getParallelism() * 2);
+        double[] values = new double[BATCH_CELLS];
+        double[] interests = new double[BATCH_CELLS];
+        byte[][] text = new byte[parts][]; // Each part's CSV lines, reused from batch to batch
+        int[] textLength = new int[parts];
+        ByteBuffer columns = csv ? null : ByteBuffer.allocateDirect(4 + 16 * BATCH_CELLS);
+
+        // The text of every axis value is worked out once
+        byte[][][] labels = csv ? new byte[][][] { labels(principals), labels(rates), labels(periodsPerYear),
+                labels(totalPeriods), labels(deposits) } : null;
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, csv ? ByteBuffer.wrap(CSV_HEADER) : header());
+
+            for (long batchStart = 0; batchStart < cells; batchStart += BATCH_CELLS) {
+                int count = (int) Math.min(BATCH_CELLS, cells - batchStart);
+
+                // Evaluate the batch in parts, in parallel
+                CellTask[] tasks = new CellTask[parts];
+                for (int p = 0; p < parts; p++) {
+                    int from = (int) ((long) count * p / parts);
+                    int to = (int) ((long) count * (p + 1) / parts);
+                    if (csv && (text[p] == null || text[p].length < (to - from) * LINE_BYTES)) {
+                        text[p] = new byte[(to - from) * LINE_BYTES];
+                    }
+                    tasks[p] = new CellTask(factors, batchStart, from, to, values, interests, labels,
+                            csv ? text[p] : null, textLength, p);
+                }
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+
+                // Write the batch in order
+                if (csv) {
+                    for (int p = 0; p < parts; p++) {
+                        writeFully(out, ByteBuffer.wrap(text[p], 0, textLength[p]));
+                    }
+                } else {
+                    columns.clear();
+                    columns.putInt(count);
+                    columns.asDoubleBuffer().put(values, 0, count);
+                    columns.position(4 + 8 * count);
+                    columns.asDoubleBuffer().put(interests, 0, count);
+                    columns.position(4 + 16 * count);
+                    columns.flip();
+                    writeFully(out, columns);
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Works out (1 + r/n)^(nt) for every (rate, frequency, horizon), in cell order.
+     */
+    double[] compoundFactors() {
+        int frequencies = periodsPerYear.length;
+        int horizons = totalPeriods.length;
+        double[] factors = new double[rates.length * frequencies * horizons];
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                Arrays.parallelSetAll(factors, g -> TreasuryBillYields.computeCompoundFactor(
+                        rates[g / (frequencies * horizons)], periodsPerYear[g / horizons % frequencies],
+                        totalPeriods[g % horizons]));
+            }
+        });
+        return factors;
+    }
+
+    /**
+     * Evaluates the cells [batchStart + from, batchStart + to).
+     */
+    private class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final double[] factors;
+        private final long batchStart;
+        private final int from;
+        private final int to;
+        private final double[] values;
+        private final double[] interests;
+        private final byte[][][] labels; // Null unless writing CSV
+        private final byte[] text;
+        private final int[] textLength;
+        private final int part;
+
+        CellTask(double[] factors, long batchStart, int from, int to, double[] values, double[] interests,
+                byte[][][] labels, byte[] text, int[] textLength, int part) {
+            this.factors = factors;
+            this.batchStart = batchStart;
+            this.from = from;
+            this.to = to;
+            this.values = values;
+            this.interests = interests;
+            this.labels = labels;
+            this.text = text;
+            this.textLength = textLength;
+            this.part = part;
+        }
+
+        @Override
+        protected void compute() {
+            int frequencies = periodsPerYear.length;
+            int horizons = totalPeriods.length;
+
+            // Split the first cell's index into its axes, then count up from there
+            long index = batchStart + from;
+            int deposit = (int) (index % deposits.length);
+            index /= deposits.length;
+            int principal = (int) (index % principals.length);
+            int group = (int) (index / principals.length);
+
+            int length = 0;
+            for (int i = from; i < to; i++) {
+                double rate = rates[group / (frequencies * horizons)];
+                int frequency = group / horizons % frequencies;
+                double n = periodsPerYear[frequency];
+                double value = TreasuryBillYields.computeInvestmentValueFromFactor(principals[principal], rate, n,
+                        deposits[deposit], factors[group]);
+                // Deposits follow every period but the first, as in TreasuryBillSimulation
+                long depositsMade = Math.max(Math.round(n * totalPeriods[group % horizons]) - 1, 0);
+                double interest = value - principals[principal] - depositsMade * deposits[deposit];
+                values[i] = value;
+                interests[i] = interest;
+
+                if (text != null) {
+                    length = put(text, length, labels[0][principal]);
+                    length = put(text, length, labels[1][group / (frequencies * horizons)]);
+                    length = put(text, length, labels[2][frequency]);
+                    length = put(text, length, labels[3][group % horizons]);
+                    length = put(text, length, labels[4][deposit]);
+                    length = putAmount(text, length, value);
+                    text[length++] = ',';
+                    length = putAmount(text, length, interest);
+                    text[length++] = '\n';
+                }
+
+                if (++deposit == deposits.length) {
+                    deposit = 0;
+                    if (++principal == principals.length) {
+                        principal = 0;
+                        group++;
+                    }
+                }
+            }
+            textLength[part] = length;
+        }
+    }
+
+    private ByteBuffer header() {
+        int values = principals.length + rates.length + periodsPerYear.length + totalPeriods.length
+                + deposits.length;
+        ByteBuffer header = ByteBuffer.allocate(28 + 8 * values);
+        header.putInt(MAGIC).putInt(VERSION);
+        for (double[] axis : new double[][] { principals, rates, periodsPerYear, totalPeriods, deposits }) {
+            header.putInt(axis.length);
+        }
+        for (double[] axis : new double[][] { principals, rates, periodsPerYear, totalPeriods, deposits }) {
+            for (double value : axis) {
+                header.putDouble(value);
+            }
+        }
+        return header.flip();
+    }
+
+    /**
+     * @return Each value as CSV text followed by a comma
+     */
+    private static byte[][] labels(double[] axis) {
+        byte[][] labels = new byte[axis.length][];
+        for (int i = 0; i < axis.length; i++) {
+            labels[i] = (Double.toString(axis[i]) + ",").getBytes(StandardCharsets.US_ASCII);
+        }
+        return labels;
+    }
+
+    private static int put(byte[] out, int offset, byte[] bytes) {
+        System.arraycopy(bytes, 0, out, offset, bytes.length);
+        return offset + bytes.length;
+    }
+
+    /**
+     * Writes an amount to 2 d.p. without going through String.format. Amounts
+     * too large to hold in pesewas as a long are written as Double.toString does.
+     */
+    static int putAmount(byte[] out, int offset, double amount) {
+        if (!(Math.abs(amount) < 1e15)) {
+            return put(out, offset, Double.toString(amount).getBytes(StandardCharsets.US_ASCII));
+        }
+        long pesewas = Math.round(amount * 100);
+        if (pesewas < 0) {
+            out[offset++] = '-';
+            pesewas = -pesewas;
+        }
+        long cedis = pesewas / 100;
+        int digits = 1;
+        for (long rest = cedis / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            out[i] = (byte) ('0' + cedis % 10);
+            cedis /= 10;
+        }
+        offset += digits;
+        out[offset++] = '.';
+        out[offset++] = (byte) ('0' + pesewas % 100 / 10);
+        out[offset++] = (byte) ('0' + pesewas % 10);
+        return offset;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Parses an axis: a comma separated list, or from:to:step, each value divided
+     * by the divisor.
+     */
+    static double[] axis(String text, double divisor) {
+        if (text.contains(":")) {
+            String[] parts = text.split(":");
+            double from = Double.parseDouble(parts[0]);
+            double to = Double.parseDouble(parts[1]);
+            double step = Double.parseDouble(parts[2]);
+            if (step <= 0 || to < from) {
+                throw new IllegalArgumentException("Expected from:to:step with a positive step: " + text);
+            }
+            int count = (int) Math.floor((to - from) / step + 1e-9) + 1;
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = (from + i * step) / divisor;
+            }
+            return values;
+        }
+        String[] parts = text.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i].trim()) / divisor;
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 6) {
+            System.out.println("Usage: java InvestmentGrid output(.csv|.grid) principals ratesPercent"
+                    + " periodsPerYear years deposits");
+            return;
+        }
+        InvestmentGrid grid = new InvestmentGrid(axis(args[1], 1), axis(args[2], 100), axis(args[3], 1),
+                axis(args[4], 1), axis(args[5], 1));
+        Path output = Paths.get(args[0]);
+
+        long start = System.nanoTime();
+        long cells = args[0].endsWith(".csv") ? grid.writeCsv(output) : grid.writeColumnar(output);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d cells in %.2f s (%,.0f cells/s)\n", cells, seconds, cells / seconds);
+    }
+}
@@ -0,0 +1,222 @@
+package Taxes;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Batch payroll mode for IncomeTaxCalculator. Streams a CSV of employee
+ * incomes one line at a time, so memory use stays the same however many
+ * employees the file holds.
+ *
+ * Input lines are "employeeId,grossIncome"; a line holding only an income is
+ * also accepted and a header line is skipped. Each output line is
+ * "employeeId,gross,tax,net" with amounts in GHS to 2 d.p. Incomes are read
+ * straight into pesewas and taxed with a TaxSchedule, so every amount is exact.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+ */
+public class PayrollBatch {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Totals for one batch run.
+     */
+    public static class Summary {
+        public long rows; // Rows taxed
+        public long rejected; // Rows skipped because the income was missing, unreadable or negative
+        public long gross; // Total gross income in pesewas
+        public long tax; // Total tax in pesewas
+        public long net; // Total take home pay in pesewas
+        public final long[] bandCounts; // Rows whose income falls in each band of the schedule
+
+        public Summary(int bands) {
+            this.bandCounts = new long[bands];
+        }
+
+        /**
+         * Adds another summary's totals to this one.
+         *
+         * @param other Totals for another part of the same run
+         */
+        public void add(Summary other) {
+            rows += other.rows;
+            rejected += other.rejected;
+            gross += other.gross;
+            tax += other.tax;
+            net += other.net;
+            for (int i = 0; i < bandCounts.length; i++) {
+                bandCounts[i] += other.bandCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Taxes every row of an income file with the default schedule and writes
+     * the results.
+     *
+     * @param input  The CSV of employee incomes
+     * @param output The CSV to write, replaced if it exists
+     * @return Totals for the run
+     * @throws IOException If either file cannot be read or written
+     */
+    public static Summary process(Path input, Path output) throws IOException {
+        return process(input, output, TaxSchedule.DEFAULT);
+    }
+
+    /**
+     * Taxes every row of an income file and writes the results.
+     *
+     * @param input    The CSV of employee incomes
+     * @param output   The CSV to write, replaced if it exists
+     * @param schedule The tax bands to apply
+     * @return Totals for the run
+     * @throws IOException If either file cannot be read or written
+     */
+    public static Summary process(Path input, Path output, TaxSchedule schedule) throws IOException {
+        Summary summary = new Summary(schedule.bands());
+        StringBuilder row = new StringBuilder(64); // Reused for every output line
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(input), StandardCharsets.UTF_8), BUFFER_SIZE);
+                BufferedWriter writer = new BufferedWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8),
+                        BUFFER_SIZE)) {
+            writer.write("employeeId,gross,tax,net\n");
+
+            String line;
+            boolean first = true;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.lastIndexOf(',');
+                String id = comma < 0 ? "" : line.substring(0, comma);
+                long income;
+                try {
+                    income = parsePesewas(line.substring(comma + 1).trim());
+                } catch (NumberFormatException e) {
+                    if (!first) {
+                        summary.rejected++; // Only the first line may be a header
+                    }
+                    first = false;
+                    continue;
+                }
+                first = false;
+                if (income < 0) {
+                    summary.rejected++;
+                    continue;
+                }
+
+                long totalTax = schedule.taxPesewas(income);
+                long netIncome = income - totalTax;
+                summary.rows++;
+                summary.gross += income;
+                summary.tax += totalTax;
+                summary.net += netIncome;
+                summary.bandCounts[schedule.bandOf(income)]++;
+
+                row.setLength(0);
+                row.append(id).append(',');
+                appendAmount(row, income).append(',');
+                appendAmount(row, totalTax).append(',');
+                appendAmount(row, netIncome).append('\n');
+                writer.append(row);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Parses an amount in GHS, such as "1250", "1250.5" or "-3.25", straight
+     * into pesewas without going through a double. Digits past the second
+     * decimal place round half up.
+     *
+     * @param text The amount
+     * @return The amount in pesewas
+     * @throws NumberFormatException If the text is not a decimal number
+     */
+    static long parsePesewas(String text) {
+        int i = 0;
+        boolean negative = false;
+        if (text.length() > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long pesewas = 0;
+        int decimals = -1; // Digits seen after the point, -1 before the point
+        boolean digits = false;
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                digits = true;
+                if (decimals < 2) {
+                    pesewas = appendDigit(pesewas, c - '0');
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if (decimals == 2) {
+                    pesewas += c >= '5' ? 1 : 0; // Round on the first dropped digit, MAX_VALUE wraps negative
+                    decimals++;
+                }
+                if (pesewas < 0) {
+                    throw new NumberFormatException("Amount out of range: " + text);
+                }
+            } else {
+                throw new NumberFormatException("Not an amount: " + text);
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not an amount: " + text);
+        }
+
+        // Scale up to pesewas if fewer than two decimals were given
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            pesewas = appendDigit(pesewas, 0);
+        }
+        if (pesewas < 0) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+        return negative ? -pesewas : pesewas;
+    }
+
+    /**
+     * One step of the amount parsers: shifts a non-negative amount up by a
+     * decimal place and adds a digit, unless that would overflow a long.
+     *
+     * @param pesewas The amount so far, not negative
+     * @param digit   The next digit, 0 to 9
+     * @return pesewas * 10 + digit, or -1 if it does not fit in a long
+     */
+    static long appendDigit(long pesewas, int digit) {
+        if (pesewas < 0 || pesewas > (Long.MAX_VALUE - digit) / 10) {
+            return -1;
+        }
+        return pesewas * 10 + digit;
+    }
+
+    /**
+     * Appends an amount in pesewas as GHS to 2 d.p., without going through
+     * String.format.
+     *
+     * @param out     The builder to append to
+     * @param pesewas The amount in pesewas
+     * @return The builder
+     */
+    static StringBuilder appendAmount(StringBuilder out, long pesewas) {
+        if (pesewas < 0) {
+            out.append('-');
+            pesewas = -pesewas;
+        }
+        out.append(pesewas / 100).append('.');
+        long fraction = pesewas % 100;
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+}
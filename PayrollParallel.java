@@ -0,0 +1,327 @@
+package Taxes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel version of PayrollBatch for very large income files. The input is
+ * split into byte ranges that start and end on line boundaries, and each range
+ * is memory-mapped, parsed and taxed by its own fork/join task. Every task
+ * writes its rows to a temporary file, and the temporary files are copied into
+ * the output in their original order, so the output is the same as
+ * PayrollBatch would write.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+ */
+public class PayrollParallel {
+    private static final long MIN_CHUNK = 1 << 20; // Ranges smaller than 1 MB are not worth a task
+    private static final long MAX_CHUNK = 256 << 20; // Keeps each mapping well below 2 GB
+    private static final int OUT_BUFFER = 1 << 16;
+    private static final byte[] HEADER = "employeeId,gross,tax,net\n".getBytes();
+
+    /**
+     * Taxes every row of an income file on all cores and writes the results.
+     *
+     * @param input    The CSV of employee incomes
+     * @param output   The CSV to write, replaced if it exists
+     * @param schedule The tax bands to apply
+     * @return Totals for the run, including per-band counts
+     * @throws IOException If either file cannot be read or written
+     */
+    public static PayrollBatch.Summary process(Path input, Path output, TaxSchedule schedule) throws IOException {
+        return process(input, output, schedule, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Taxes every row of an income file on the given pool and writes the results.
+     *
+     * @param input    The CSV of employee incomes
+     * @param output   The CSV to write, replaced if it exists
+     * @param schedule The tax bands to apply
+     * @param pool     The pool to run the chunk tasks on
+     * @return Totals for the run, including per-band counts
+     * @throws IOException If either file cannot be read or written
+     */
+    public static PayrollBatch.Summary process(Path input, Path output, TaxSchedule schedule, ForkJoinPool pool)
+            throws IOException {
+        PayrollBatch.Summary summary = new PayrollBatch.Summary(schedule.bands());
+        List<Path> parts = new ArrayList<>();
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(in, pool.getParallelism());
+
+            List<ChunkTask> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                Path part = Files.createTempFile(output.toAbsolutePath().getParent(), "payroll", ".part");
+                parts.add(part);
+                tasks.add(new ChunkTask(in, bounds[i], bounds[i + 1], i == 0, part, schedule));
+            }
+
+            // Run every chunk, then merge the totals and the rows in chunk order
+            for (ChunkTask task : tasks) {
+                pool.execute(task);
+            }
+            try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(ByteBuffer.wrap(HEADER));
+                for (int i = 0; i < tasks.size(); i++) {
+                    summary.add(tasks.get(i).join());
+                    try (FileChannel part = FileChannel.open(parts.get(i), StandardOpenOption.READ)) {
+                        long size = part.size();
+                        for (long done = 0; done < size;) {
+                            done += part.transferTo(done, size - done, out);
+                        }
+                    }
+                }
+            }
+        } finally {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Splits a file into ranges that each end just after a newline (or at the
+     * end of the file).
+     *
+     * @return The range boundaries; range i is [bounds[i], bounds[i + 1])
+     */
+    static long[] chunkBounds(FileChannel in, int workers) throws IOException {
+        long size = in.size();
+        long chunk = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (4L * workers) + 1));
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunk);
+
+            // Move the end forward to just past the next newline
+            boolean found = end == size;
+            while (!found) {
+                probe.clear();
+                int read = in.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        end += i + 1;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    end += read;
+                }
+            }
+            bounds.add(end);
+            start = end;
+        }
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Parses and taxes one byte range of the input.
+     */
+    private static class ChunkTask extends RecursiveTask<PayrollBatch.Summary> {
+        private static final long serialVersionUID = 1L;
+        private final FileChannel in;
+        private final long start;
+        private final long end;
+        private final boolean first; // Only the first line of the file may be a header
+        private final Path part;
+        private final TaxSchedule schedule;
+
+        ChunkTask(FileChannel in, long start, long end, boolean first, Path part, TaxSchedule schedule) {
+            this.in = in;
+            this.start = start;
+            this.end = end;
+            this.first = first;
+            this.part = part;
+            this.schedule = schedule;
+        }
+
+        @Override
+        protected PayrollBatch.Summary compute() {
+            PayrollBatch.Summary summary = new PayrollBatch.Summary(schedule.bands());
+            try (FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                MappedByteBuffer bytes = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(OUT_BUFFER);
+                int length = bytes.limit();
+                boolean headerAllowed = first;
+
+                int lineStart = 0;
+                while (lineStart < length) {
+                    // Find the end of the line and the last comma in it
+                    int lineEnd = lineStart;
+                    int comma = -1;
+                    while (lineEnd < length && bytes.get(lineEnd) != '\n') {
+                        if (bytes.get(lineEnd) == ',') {
+                            comma = lineEnd;
+                        }
+                        lineEnd++;
+                    }
+                    int next = lineEnd + 1;
+                    if (lineEnd > lineStart && bytes.get(lineEnd - 1) == '\r') {
+                        lineEnd--;
+                    }
+
+                    long income = parsePesewas(bytes, comma < 0 ? lineStart : comma + 1, lineEnd);
+                    if (income == Long.MIN_VALUE) {
+                        if (!headerAllowed) {
+                            summary.rejected++;
+                        }
+                    } else if (income < 0) {
+                        summary.rejected++;
+                    } else {
+                        long tax = schedule.taxPesewas(income);
+                        summary.rows++;
+                        summary.gross += income;
+                        summary.tax += tax;
+                        summary.net += income - tax;
+                        summary.bandCounts[schedule.bandOf(income)]++;
+
+                        for (int i = lineStart; i < comma; i++) {
+                            if (!buffer.hasRemaining()) {
+                                drain(out, buffer);
+                            }
+                            buffer.put(bytes.get(i));
+                        }
+                        if (buffer.remaining() < 80) {
+                            drain(out, buffer); // Room for three amounts and the separators
+                        }
+                        buffer.put((byte) ',');
+                        putAmount(buffer, income);
+                        buffer.put((byte) ',');
+                        putAmount(buffer, tax);
+                        buffer.put((byte) ',');
+                        putAmount(buffer, income - tax);
+                        buffer.put((byte) '\n');
+                    }
+                    headerAllowed = false;
+                    lineStart = next;
+                }
+                drain(out, buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return summary;
+        }
+    }
+
+    /**
+     * Byte version of PayrollBatch.parsePesewas, reading straight from the
+     * mapped file.
+     *
+     * @return The amount in pesewas, or Long.MIN_VALUE if the bytes are not an amount
+     *         or it does not fit in a long
+     */
+    static long parsePesewas(ByteBuffer bytes, int from, int to) {
+        // Trim spaces and tabs
+        while (from < to && (bytes.get(from) == ' ' || bytes.get(from) == '\t')) {
+            from++;
+        }
+        while (to > from && (bytes.get(to - 1) == ' ' || bytes.get(to - 1) == '\t')) {
+            to--;
+        }
+
+        boolean negative = false;
+        if (from < to && (bytes.get(from) == '-' || bytes.get(from) == '+')) {
+            negative = bytes.get(from) == '-';
+            from++;
+        }
+
+        long pesewas = 0;
+        int decimals = -1; // Digits seen after the point, -1 before the point
+        boolean digits = false;
+        for (int i = from; i < to; i++) {
+            byte c = bytes.get(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                digits = true;
+                if (decimals < 2) {
+                    pesewas = PayrollBatch.appendDigit(pesewas, c - '0');
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if (decimals == 2) {
+                    pesewas += c >= '5' ? 1 : 0; // Round on the first dropped digit, MAX_VALUE wraps negative
+                    decimals++;
+                }
+                if (pesewas < 0) {
+                    return Long.MIN_VALUE;
+                }
+            } else {
+                return Long.MIN_VALUE;
+            }
+        }
+        if (!digits) {
+            return Long.MIN_VALUE;
+        }
+
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            pesewas = PayrollBatch.appendDigit(pesewas, 0);
+        }
+        if (pesewas < 0) {
+            return Long.MIN_VALUE;
+        }
+        return negative ? -pesewas : pesewas;
+    }
+
+    /**
+     * Writes a non-negative amount in pesewas as GHS to 2 d.p.
+     */
+    private static void putAmount(ByteBuffer buffer, long pesewas) {
+        long cedis = pesewas / 100;
+        int fraction = (int) (pesewas % 100);
+
+        // Write the whole cedis right to left into the buffer
+        int digits = 1;
+        for (long rest = cedis / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int position = buffer.position();
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer.put(position + i, (byte) ('0' + cedis % 10));
+            cedis /= 10;
+        }
+        buffer.position(position + digits);
+
+        buffer.put((byte) '.');
+        buffer.put((byte) ('0' + fraction / 10));
+        buffer.put((byte) ('0' + fraction % 10));
+    }
+
+    /**
+     * Writes out everything in the buffer and clears it for reuse.
+     */
+    private static void drain(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,273 @@
+package Taxes;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Income tax bracket schedule with all money held as long pesewas. The bands
+ * are kept in primitive arrays together with the tax owed on everything below
+ * each band, so working out the tax on an income is one binary search and a
+ * multiply, with no allocation and no rounding drift.
+ *
+ * A schedule file has one band per line, lowest first: the band width in GHS,
+ * or * for a top band with no upper limit, then the rate in percent. Blank
+ * lines and lines starting with # are ignored. For example:
+ * <pre>
+ * 402   0
+ * 110   5
+ * 130   10
+ * *     17.5
+ * </pre>
+ *
+ * Tax is rounded half up to the nearest pesewa once, on the total.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+ */
+public class TaxSchedule {
+    static final long BASIS_POINTS = 10_000; // Rates are held in hundredths of a percent
+    static final long NO_LIMIT = Long.MAX_VALUE / (4 * BASIS_POINTS); // Width of an unbounded top band
+
+    /**
+     * The schedule IncomeTaxCalculator has always used. Beyond the 35% band,
+     * income is not taxed further, matching the original IncomeTax.
+     */
+    public static final TaxSchedule DEFAULT = new TaxSchedule(
+            new long[] { 40_200, 11_000, 13_000, 300_000, 1_639_500, 2_996_300, 5_000_000, NO_LIMIT },
+            new int[] { 0, 500, 1000, 1750, 2500, 3000, 3500, 0 });
+
+    final long[] lower; // Lowest income in each band, in pesewas
+    final long[] width; // Width of each band, in pesewas
+    final int[] rate; // Rate of each band, in basis points
+    final long[] taxBelow; // Tax on the income below each band, in pesewas times basis points
+    final long[] netBelow; // Take home pay at the bottom of each band, in pesewas times basis points
+
+    /**
+     * Creates a schedule from its bands, lowest first.
+     *
+     * @param widths Width of each band in pesewas, NO_LIMIT for an unbounded top band
+     * @param rates  Rate of each band in basis points (1750 for 17.5%)
+     */
+    TaxSchedule(long[] widths, int[] rates) {
+        if (widths.length == 0 || widths.length != rates.length) {
+            throw new IllegalArgumentException("A schedule needs one rate for each band");
+        }
+        int bands = widths.length;
+        this.lower = new long[bands];
+        this.width = widths.clone();
+        this.rate = rates.clone();
+        this.taxBelow = new long[bands];
+        this.netBelow = new long[bands];
+
+        for (int i = 0; i < bands; i++) {
+            if (widths[i] <= 0 || rates[i] < 0 || rates[i] >= BASIS_POINTS) {
+                throw new IllegalArgumentException("Band " + i + " needs a positive width and a rate below 100%");
+            }
+            if (widths[i] == NO_LIMIT && i != bands - 1) {
+                throw new IllegalArgumentException("Only the top band can have no upper limit");
+            }
+            if (i > 0) {
+                lower[i] = lower[i - 1] + widths[i - 1];
+                taxBelow[i] = taxBelow[i - 1] + widths[i - 1] * rates[i - 1];
+                netBelow[i] = lower[i] * BASIS_POINTS - taxBelow[i];
+            }
+        }
+    }
+
+    /**
+     * Reads a schedule file.
+     *
+     * @param path The schedule file
+     * @return The schedule
+     * @throws IOException If the file cannot be read
+     */
+    public static TaxSchedule load(Path path) throws IOException {
+        long[] widths = new long[8];
+        int[] rates = new int[8];
+        int bands = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if (fields.length != 2) {
+                    throw new IllegalArgumentException("Expected 'width rate' but found: " + line);
+                }
+                if (bands == widths.length) {
+                    widths = Arrays.copyOf(widths, bands * 2);
+                    rates = Arrays.copyOf(rates, bands * 2);
+                }
+                widths[bands] = fields[0].equals("*") ? NO_LIMIT : PayrollBatch.parsePesewas(fields[0]);
+                rates[bands] = (int) PayrollBatch.parsePesewas(fields[1]); // Percent to 2 d.p. is basis points
+                bands++;
+            }
+        }
+        return new TaxSchedule(Arrays.copyOf(widths, bands), Arrays.copyOf(rates, bands));
+    }
+
+    /**
+     * @return The number of bands
+     */
+    public int bands() {
+        return lower.length;
+    }
+
+    /**
+     * Finds the band an income falls in.
+     *
+     * @param grossPesewas The gross income in pesewas
+     * @return The band index, 0 for the lowest band
+     */
+    public int bandOf(long grossPesewas) {
+        int low = 0;
+        int high = lower.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lower[middle] < grossPesewas) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Computes the tax on a gross income.
+     *
+     * @param grossPesewas The gross income in pesewas
+     * @return The tax in pesewas
+     */
+    public long taxPesewas(long grossPesewas) {
+        if (grossPesewas <= 0) {
+            return 0;
+        }
+        int band = bandOf(grossPesewas);
+        long scaled = taxBelow[band] + (grossPesewas - lower[band]) * rate[band];
+        return (scaled + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    /**
+     * Computes the tax and take home pay for a whole array of incomes. Gives the
+     * same results as taxPesewas, but the loop has no data-dependent branches:
+     * every band adds min(max(income - lower, 0), width) * rate to the tax, so
+     * the JIT can unroll it and compile the clamps to conditional moves.
+     *
+     * @param grossPesewas Gross incomes in pesewas
+     * @param taxPesewas   Receives the tax on each income, in pesewas
+     * @param netPesewas   Receives the take home pay for each income, in pesewas
+     */
+    public void computeBulk(long[] grossPesewas, long[] taxPesewas, long[] netPesewas) {
+        computeBulk(grossPesewas, taxPesewas, netPesewas, grossPesewas.length);
+    }
+
+    /**
+     * Computes the tax and take home pay for the first n incomes of an array.
+     *
+     * @param grossPesewas Gross incomes in pesewas
+     * @param taxPesewas   Receives the tax on each income, in pesewas
+     * @param netPesewas   Receives the take home pay for each income, in pesewas
+     * @param n            The number of incomes to compute
+     */
+    public void computeBulk(long[] grossPesewas, long[] taxPesewas, long[] netPesewas, int n) {
+        if (grossPesewas.length < n || taxPesewas.length < n || netPesewas.length < n) {
+            throw new IllegalArgumentException("Arrays are shorter than the number of incomes");
+        }
+
+        long[] bandLower = lower;
+        long[] bandWidth = width;
+        int[] bandRate = rate;
+        int bands = bandLower.length;
+
+        for (int i = 0; i < n; i++) {
+            long gross = grossPesewas[i];
+
+            // Sum the income in each band times its rate, in pesewas times basis points
+            long scaled = 0;
+            for (int band = 0; band < bands; band++) {
+                long inBand = Math.min(Math.max(gross - bandLower[band], 0), bandWidth[band]);
+                scaled += inBand * bandRate[band];
+            }
+
+            // Round once on the total, as taxPesewas does
+            long tax = (scaled + BASIS_POINTS / 2) / BASIS_POINTS;
+            taxPesewas[i] = tax;
+            netPesewas[i] = gross - tax;
+        }
+    }
+
+    /**
+     * Computes the take home pay for a gross income.
+     *
+     * @param grossPesewas The gross income in pesewas
+     * @return The income after tax in pesewas
+     */
+    public long netPesewas(long grossPesewas) {
+        return grossPesewas - taxPesewas(grossPesewas);
+    }
+
+    /**
+     * Works out the gross income that gives a target take home pay, by
+     * inverting the band formula directly instead of searching. Take home pay
+     * rises by 0 or 1 pesewa for each extra pesewa of income, so every target
+     * is reached exactly, and the smallest such gross income is returned.
+     *
+     * @param netPesewas The target take home pay in pesewas
+     * @return The smallest gross income in pesewas whose take home pay is the target
+     */
+    public long grossForNet(long netPesewas) {
+        if (netPesewas <= 0) {
+            return 0;
+        }
+        long target = netPesewas * BASIS_POINTS;
+
+        // Find the band the answer falls in: the last one starting below the target
+        int low = 0;
+        int high = netBelow.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (netBelow[middle] < target) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        // In that band net = gross - (taxBelow + (gross - lower) * rate) / BASIS_POINTS, so
+        // solve for gross and round up
+        long keep = BASIS_POINTS - rate[low];
+        long gross = lower[low] + (target - netBelow[low] + keep - 1) / keep;
+
+        // Rounding the tax to the pesewa can move the answer by a pesewa either way
+        while (gross > 0 && netPesewas(gross - 1) >= netPesewas) {
+            gross--;
+        }
+        while (netPesewas(gross) < netPesewas) {
+            gross++;
+        }
+        return gross;
+    }
+
+    /**
+     * Works out the gross income for a whole array of target take home pays.
+     *
+     * @param netPesewas   Target take home pays in pesewas
+     * @param grossPesewas Receives the smallest gross income for each target, in pesewas
+     */
+    public void grossForNetBulk(long[] netPesewas, long[] grossPesewas) {
+        if (grossPesewas.length < netPesewas.length) {
+            throw new IllegalArgumentException("Output array is shorter than the input");
+        }
+        for (int i = 0; i < netPesewas.length; i++) {
+            grossPesewas[i] = grossForNet(netPesewas[i]);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Fixed-size, lock-free transposition table for the Connect Four solver.
+ *
+ * Every slot is two longs: the position key XORed with the entry data, and the
+ * entry data itself. A reader recomputes the key from both halves and ignores
+ * the slot if it does not match, so an entry torn by two threads writing at the
+ * same time is simply treated as a miss. That lets several search threads
+ * share one table without locks.
+ *
+ * Entry data layout (low bits first):
+ * <pre>
+ *  score + 64   7 bits
+ *  bound        2 bits  (EXACT, LOWER or UPPER)
+ *  depth        8 bits  (plies searched below the position, DEPTH_EXACT if to the end)
+ *  best move    3 bits
+ *  generation   6 bits  (search that wrote the entry)
+ * </pre>
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+public class TranspositionTable {
+    public static final int EXACT = 1; // The score is the value of the position
+    public static final int LOWER = 2; // The value is at least the score
+    public static final int UPPER = 3; // The value is at most the score
+
+    public static final int DEPTH_EXACT = 255; // The subtree was searched to the end of the game
+
+    /**
+     * How a new entry competes with the one already in its slot.
+     */
+    public enum ReplacementPolicy {
+        ALWAYS, // The newest entry always wins
+        DEPTH_PREFERRED // Keep the deeper entry, unless it was written by an older search
+    }
+
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final long[] slots; // key ^ data, data for each entry
+    private final int indexMask; // Number of entries - 1, the entry count is a power of two
+    private final ReplacementPolicy policy;
+    private volatile int generation; // Bumped by newSearch so stale entries can be replaced
+
+    /**
+     * Creates a table that uses at most the given number of bytes.
+     *
+     * @param memoryBytes The memory budget; at least 1024 entries are always allocated
+     * @param policy      The replacement policy
+     */
+    public TranspositionTable(long memoryBytes, ReplacementPolicy policy) {
+        long entries = Long.highestOneBit(Math.max(memoryBytes / BYTES_PER_ENTRY, 1024));
+        entries = Math.min(entries, 1 << 29); // Keep the long array below the Java array size limit
+        this.slots = new long[(int) entries * 2];
+        this.indexMask = (int) entries - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * @return The number of entries in the table
+     */
+    public int capacity() {
+        return indexMask + 1;
+    }
+
+    /**
+     * Marks the start of a new search. Under DEPTH_PREFERRED, entries from
+     * earlier searches can then be replaced regardless of depth.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        java.util.Arrays.fill(slots, 0);
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key The position key from ConnectFourBoard.key
+     * @return The entry data, or 0 if the position is not in the table
+     */
+    public long get(long key) {
+        int slot = index(key) << 1;
+        long data = slots[slot + 1];
+        if ((slots[slot] ^ data) != key) {
+            return 0;
+        }
+        return data;
+    }
+
+    /**
+     * Stores a search result for a position, subject to the replacement policy.
+     *
+     * @param key   The position key
+     * @param score The score found
+     * @param bound EXACT, LOWER or UPPER
+     * @param depth The plies searched below the position, or DEPTH_EXACT
+     * @param move  The best column found, or 0 if unknown
+     */
+    public void put(long key, int score, int bound, int depth, int move) {
+        int slot = index(key) << 1;
+        int gen = generation;
+
+        if (policy == ReplacementPolicy.DEPTH_PREFERRED) {
+            long old = slots[slot + 1];
+            if (old != 0 && generation(old) == gen && depth(old) > depth) {
+                return; // Keep the deeper entry from this search
+            }
+        }
+
+        long data = (score + 64) | ((long) bound << 7) | ((long) depth << 9) | ((long) move << 17)
+                | ((long) gen << 20);
+        slots[slot] = key ^ data;
+        slots[slot + 1] = data;
+    }
+
+    /**
+     * @param data Entry data returned by get
+     * @return The stored score
+     */
+    public static int score(long data) {
+        return (int) (data & 0x7F) - 64;
+    }
+
+    /**
+     * @param data Entry data returned by get
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 7) & 0x3;
+    }
+
+    /**
+     * @param data Entry data returned by get
+     * @return The plies searched below the position, or DEPTH_EXACT
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 9) & 0xFF;
+    }
+
+    /**
+     * @param data Entry data returned by get
+     * @return The best column stored with the entry
+     */
+    public static int move(long data) {
+        return (int) (data >>> 17) & 0x7;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 20) & 0x3F;
+    }
+
+    /**
+     * Spreads the key bits before masking, since nearby positions differ only
+     * in a few low bits.
+     */
+    private int index(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & indexMask;
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Monte Carlo version of TreasuryBillYields. Instead of one fixed rate for
+ * the whole horizon, the T-bill rate follows a mean-reverting random walk
+ * (a Vasicek process): each period it moves part of the way back towards its
+ * long-run level, plus a normally distributed shock. Every path compounds
+ * period by period with the same deposits as computeInvestmentValue, so with
+ * no volatility each path lands on the closed-form value.
+ *
+ * Paths are split across a fork/join pool. Each task gets its own
+ * SplittableRandom split off its parent's, so a run is repeatable for a given
+ * seed however the work is scheduled. Final values go straight into one
+ * double array, which is sorted once to read off the percentiles.
+ *
+ * Usage: java TreasuryBillSimulation principal ratePercent periodsPerYear years deposit
+ *        [paths] [volatilityPercent] [longRunRatePercent] [reversion]
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class TreasuryBillSimulation {
+    public static final double[] PERCENTILES = { 1, 5, 25, 50, 75, 95, 99 };
+    private static final int LEAF_PATHS = 4096; // Paths simulated by one task without splitting further
+
+    private final double reversion; // How fast the rate returns to its long-run level, per year
+    private final double longRunRate; // The level the rate returns to, in decimal
+    private final double volatility; // Yearly standard deviation of the rate, in decimal
+
+    /**
+     * Results of one simulation.
+     */
+    public static class Result {
+        public final double[] percentiles; // The levels, such as PERCENTILES
+        public final double[] values; // Final value of the investment at each level
+        public final double contributed; // Principal plus every deposit
+        public final double mean; // Mean final value
+        public final long paths;
+        public final long elapsedNanos;
+
+        Result(double[] percentiles, double[] values, double contributed, double mean, long paths,
+                long elapsedNanos) {
+            this.percentiles = percentiles;
+            this.values = values;
+            this.contributed = contributed;
+            this.mean = mean;
+            this.paths = paths;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @param i Index into percentiles
+         * @return The interest earned at that level
+         */
+        public double interest(int i) {
+            return values[i] - contributed;
+        }
+    }
+
+    /**
+     * Creates a rate model.
+     *
+     * @param reversion   How fast the rate returns to its long-run level, per year (0 for a random walk)
+     * @param longRunRate The level the rate returns to, in decimal
+     * @param volatility  Yearly standard deviation of the rate, in decimal (0 for a fixed rate)
+     */
+    public TreasuryBillSimulation(double reversion, double longRunRate, double volatility) {
+        if (reversion < 0 || volatility < 0) {
+            throw new IllegalArgumentException("Reversion and volatility cannot be negative");
+        }
+        this.reversion = reversion;
+        this.longRunRate = longRunRate;
+        this.volatility = volatility;
+    }
+
+    /**
+     * Simulates an investment on the common fork/join pool.
+     *
+     * @param principal      Initial investment at the beginning of the period
+     * @param rate           Annual interest rate at the start (in decimal form)
+     * @param periodsPerYear Number of times interest is compounded each year
+     * @param totalPeriod    Number of years the investment will accrue over
+     * @param deposit        Amount added at the end of each period but the last
+     * @param paths          Number of paths to simulate
+     * @param seed           Seed for the random numbers, so runs can be repeated
+     * @return The percentile bands of the final value
+     */
+    public Result simulate(double principal, double rate, double periodsPerYear, double totalPeriod, double deposit,
+            int paths, long seed) {
+        return simulate(principal, rate, periodsPerYear, totalPeriod, deposit, paths, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Simulates an investment on the given pool.
+     *
+     * @see #simulate(double, double, double, double, double, int, long)
+     */
+    public Result simulate(double principal, double rate, double periodsPerYear, double totalPeriod, double deposit,
+            int paths, long seed, ForkJoinPool pool) {
+        if (paths <= 0 || periodsPerYear <= 0) {
+            throw new IllegalArgumentException("Needs at least one path and one period a year");
+        }
+        long start = System.nanoTime();
+        int periods = (int) Math.round(periodsPerYear * totalPeriod);
+        double[] finals = new double[paths];
+        pool.invoke(new PathTask(principal, rate, periodsPerYear, periods, deposit, finals, 0, paths,
+                new SplittableRandom(seed)));
+
+        double sum = 0;
+        for (double value : finals) {
+            sum += value;
+        }
+        Arrays.parallelSort(finals);
+        double[] values = new double[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            values[i] = percentile(finals, PERCENTILES[i]);
+        }
+        double contributed = principal + Math.max(periods - 1, 0) * deposit;
+        return new Result(PERCENTILES.clone(), values, contributed, sum / paths, paths, System.nanoTime() - start);
+    }
+
+    /**
+     * Reads a percentile from sorted values, interpolating between neighbours.
+     */
+    static double percentile(double[] sorted, double level) {
+        double position = level / 100 * (sorted.length - 1);
+        int below = (int) position;
+        int above = Math.min(below + 1, sorted.length - 1);
+        return sorted[below] + (sorted[above] - sorted[below]) * (position - below);
+    }
+
+    /**
+     * Simulates the paths [from, to), splitting in half until the range is
+     * small enough.
+     */
+    private class PathTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final double principal;
+        private final double rate;
+        private final double periodsPerYear;
+        private final int periods;
+        private final double deposit;
+        private final double[] finals;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+
+        PathTask(double principal, double rate, double periodsPerYear, int periods, double deposit, double[] finals,
+                int from, int to, SplittableRandom random) {
+            this.principal = principal;
+            this.rate = rate;
+            this.periodsPerYear = periodsPerYear;
+            this.periods = periods;
+            this.deposit = deposit;
+            this.finals = finals;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_PATHS) {
+                int middle = (from + to) >>> 1;
+                // Split before forking so each half always gets the same numbers
+                PathTask left = new PathTask(principal, rate, periodsPerYear, periods, deposit, finals, from, middle,
+                        random.split());
+                PathTask right = new PathTask(principal, rate, periodsPerYear, periods, deposit, finals, middle, to,
+                        random.split());
+                invokeAll(left, right);
+                return;
+            }
+
+            // The rate's step each period: r += pull * (longRunRate - r) + shock * normal
+            double dt = 1 / periodsPerYear;
+            double pull = 1 - Math.exp(-reversion * dt);
+            double shock = volatility * Math.sqrt(dt);
+            for (int path = from; path < to; path++) {
+                double balance = principal;
+                double r = rate;
+                for (int period = 1; period <= periods; period++) {
+                    balance *= 1 + Math.max(r, 0) / periodsPerYear; // T-bill rates do not go below zero
+                    if (period < periods) {
+                        balance += deposit; // No deposit in the last period, as in computeInvestmentValue
+                    }
+                    r += pull * (longRunRate - r) + shock * random.nextGaussian();
+                }
+                finals[path] = balance;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 5) {
+            System.out.println("Usage: java TreasuryBillSimulation principal ratePercent periodsPerYear years deposit"
+                    + " [paths] [volatilityPercent] [longRunRatePercent] [reversion]");
+            return;
+        }
+        String cediChar = "\u20B5";
+        double principal = Double.parseDouble(args[0]);
+        double rate = Double.parseDouble(args[1]) / 100;
+        double periodsPerYear = Double.parseDouble(args[2]);
+        double totalPeriod = Double.parseDouble(args[3]);
+        double deposit = Double.parseDouble(args[4]);
+        int paths = args.length > 5 ? Integer.parseInt(args[5]) : 1_000_000;
+        double volatility = args.length > 6 ? Double.parseDouble(args[6]) / 100 : 0.02;
+        double longRunRate = args.length > 7 ? Double.parseDouble(args[7]) / 100 : rate;
+        double reversion = args.length > 8 ? Double.parseDouble(args[8]) : 0.5;
+
+        TreasuryBillSimulation simulation = new TreasuryBillSimulation(reversion, longRunRate, volatility);
+        Result result = simulation.simulate(principal, rate, periodsPerYear, totalPeriod, deposit, paths, 42);
+
+        double fixed = TreasuryBillYields.computeInvestmentValue(principal, rate, periodsPerYear, totalPeriod, deposit);
+        System.out.printf("%,d paths in %.2f s\n", result.paths, result.elapsedNanos / 1e9);
+        System.out.printf("Value at a fixed rate: %s %.2f, mean simulated value: %s %.2f\n", cediChar, fixed,
+                cediChar, result.mean);
+        System.out.printf("Contributed: %s %.2f\n", cediChar, result.contributed);
+        System.out.println("Percentile          Value       Interest");
+        for (int i = 0; i < result.percentiles.length; i++) {
+            System.out.printf("%9.0f%% %s %13.2f %s %13.2f\n", result.percentiles[i], cediChar, result.values[i],
+                    cediChar, result.interest(i));
+        }
+    }
+}
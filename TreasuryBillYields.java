@@ -7,15 +7,20 @@
  * [Compound Interest with Regular
  * Contributions](https://www.quora.com/How-do-we-calculate-compound-interest-if-we-keep-adding
  * -more-principal-amount-every-month-same-amount-or-different-amount-Is-there-a-formula-for-that)
+ *
+ * Usage: java TreasuryBillYields [statementFile]
+ * With a file, the period-by-period statement is also written there as CSV.
  * 
  * @author Ruvarashe Sadya
  * @version 1.0
  * @since 2024-02-03
 */
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class TreasuryBillYields {
-    public static void main(String args[]) {
+    public static void main(String args[]) throws IOException {
 
         String cediChar = "\u20B5";
 
@@ -54,6 +59,14 @@ public class TreasuryBillYields {
         // Print amounts rounded to 2.dp
         System.out.printf("Value of investment after %.2f years: %s %.2f \n", totalPeriod, cediChar, investmentValue);
         System.out.printf("Value of interest after %.2f years: %s %.2f\n", totalPeriod, cediChar, totalInterest);
+
+        // Write the period-by-period statement if a file was given
+        if (args.length > 0) {
+            AmortizationSchedule schedule = new AmortizationSchedule(principal, rate, periodsPerYear, totalPeriod,
+                    deposit);
+            schedule.writeCsv(Paths.get(args[0]));
+            System.out.printf("Statement of %d periods written to %s\n", schedule.periods(), args[0]);
+        }
     }
 
     public static double computeInvestmentValue(double principal, double rate, double periodsPerYear,
@@ -72,13 +85,41 @@ public class TreasuryBillYields {
          *         periods.
          */
 
+        // The growth of one cedi over the whole investment, worked out once and cached
+        // across scenarios with the same rate, frequency and horizon
+        double futureAmount = CompoundFactorCache.SHARED.factor(rate, periodsPerYear, totalPeriod);
+        return computeInvestmentValueFromFactor(principal, rate, periodsPerYear, deposit, futureAmount);
+    }
+
+    public static double computeCompoundFactor(double rate, double periodsPerYear, double totalPeriod) {
+        /**
+         * Computes the growth of one cedi over the whole investment, (1 + r/n)^(nt).
+         * Scenarios with the same rate, frequency and horizon share this factor. It
+         * is not cached, so it suits sweeps over many terms.
+         *
+         * @param rate           Annual interest rate (in decimal form)
+         * @param periodsPerYear Number of times interest is compounded each year
+         * @param totalPeriod    Number of periods the investment will accrue over
+         * @return The compound factor
+         */
+        return CompoundFactorCache.compute(rate, periodsPerYear, totalPeriod);
+    }
+
+    public static double computeInvestmentValueFromFactor(double principal, double rate, double periodsPerYear,
+            double deposit, double compoundFactor) {
+        /**
+         * Computes the same value as computeInvestmentValue from a compound factor
+         * that has already been worked out, so no pow is needed.
+         *
+         * @param compoundFactor computeCompoundFactor(rate, periodsPerYear, totalPeriod)
+         * @return The calculated value of the investment
+         */
         // Calculating value of investment in the first month
-        double firstInvestmentValue = computeGeneralValue(principal, rate, periodsPerYear, totalPeriod);
+        double firstInvestmentValue = principal * compoundFactor;
 
         // Calculating the value of investment in succeeding months, with additional
         // deposit
-        double futureAmount = computeGeneralValue(1, rate, periodsPerYear, totalPeriod); // principal as 1
-        double secondInvestmentValue = deposit * ((futureAmount - 1) / (rate / periodsPerYear));
+        double secondInvestmentValue = deposit * ((compoundFactor - 1) / (rate / periodsPerYear));
 
         // Subtract deposit because in the last month the deposit doesn't accrue
         // interest
@@ -94,7 +135,7 @@ public class TreasuryBillYields {
          * @return Final Value of the Investement
          */
 
-        double generalValue = principal * Math.pow((1 + (rate / periodsPerYear)), (periodsPerYear * totalPeriod));
+        double generalValue = principal * CompoundFactorCache.SHARED.factor(rate, periodsPerYear, totalPeriod);
         return generalValue;
     }
 
@@ -0,0 +1,262 @@
+/**
+ * Word list for Hangman that scales to millions of words. All the words are
+ * packed into one char buffer with an offset per word, duplicates are dropped
+ * while loading, and word ids are grouped by length. Drawing a random word
+ * without replacement is O(1): the drawn id is swapped to the end of a pool of
+ * ids that have not been drawn yet.
+ *
+ * @author Ruvarashe Sadya
+ * @version 1.0
+*/
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class WordDictionary {
+    private char[] chars = new char[1 << 12]; // Every word, back to back
+    private int[] offsets = new int[1 << 10]; // Word i is chars[offsets[i]] up to chars[offsets[i + 1]]
+    private int count; // Number of distinct words
+    private int[] table = new int[1 << 11]; // Open-addressing set of word ids + 1, 0 marks an empty slot
+
+    private int[] byLength; // Word ids sorted by length
+    private int[] lengthStart; // Ids of length n are byLength[lengthStart[n]] up to byLength[lengthStart[n + 1]]
+
+    private int[] pool; // Ids not drawn yet are pool[0] up to pool[remaining]
+    private int remaining;
+
+    private WordDictionary() {
+    }
+
+    /**
+     * Loads a word list with one word per line. Words are trimmed and lower
+     * cased, and blank lines, repeated words and words longer than
+     * HangmanState.MAX_LENGTH are skipped.
+     *
+     * @param path The word list file
+     * @return The dictionary
+     * @throws IOException If the file cannot be read
+     */
+    public static WordDictionary load(Path path) throws IOException {
+        WordDictionary dictionary = new WordDictionary();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                dictionary.add(line);
+            }
+        }
+        dictionary.finish();
+        return dictionary;
+    }
+
+    /**
+     * Builds a dictionary from an array of words, such as the command-line
+     * arguments. Words are skipped as by load.
+     *
+     * @param words The words
+     * @return The dictionary
+     */
+    public static WordDictionary fromWords(String[] words) {
+        WordDictionary dictionary = new WordDictionary();
+        for (String word : words) {
+            dictionary.add(word);
+        }
+        dictionary.finish();
+        return dictionary;
+    }
+
+    /**
+     * @return The number of distinct words
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return The number of words not drawn yet
+     */
+    public int remaining() {
+        return remaining;
+    }
+
+    /**
+     * Draws a random word that has not been drawn before.
+     *
+     * @param random The random generator to use
+     * @return The id of the word drawn
+     * @throws IllegalStateException If every word has been drawn
+     */
+    public int draw(Random random) {
+        if (remaining == 0) {
+            throw new IllegalStateException("Every word has been drawn");
+        }
+        int index = random.nextInt(remaining);
+        int id = pool[index];
+
+        // Swap the drawn id out of the undrawn part of the pool
+        remaining--;
+        pool[index] = pool[remaining];
+        pool[remaining] = id;
+        return id;
+    }
+
+    /**
+     * Puts every word back so it can be drawn again.
+     */
+    public void resetDraws() {
+        remaining = count;
+    }
+
+    /**
+     * @param id A word id, between 0 and size() - 1
+     * @return The word
+     */
+    public String word(int id) {
+        return new String(chars, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    /**
+     * @param id A word id
+     * @return The number of letters in the word
+     */
+    public int length(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * @param id    A word id
+     * @param index A position in the word
+     * @return The letter at that position
+     */
+    public char charAt(int id, int index) {
+        return chars[offsets[id] + index];
+    }
+
+    /**
+     * @param length A word length
+     * @return The number of words of that length
+     */
+    public int countOfLength(int length) {
+        if (length < 0 || length + 1 >= lengthStart.length) {
+            return 0;
+        }
+        return lengthStart[length + 1] - lengthStart[length];
+    }
+
+    /**
+     * @param length A word length
+     * @param index  Between 0 and countOfLength(length) - 1
+     * @return The id of the index-th word of that length
+     */
+    public int idOfLength(int length, int index) {
+        return byLength[lengthStart[length] + index];
+    }
+
+    /**
+     * Adds a word unless it is blank, too long to play or already present.
+     */
+    private void add(String text) {
+        String word = text.trim().toLowerCase();
+        int length = word.length();
+        if (length == 0 || length > HangmanState.MAX_LENGTH) {
+            return;
+        }
+
+        int start = offsets[count];
+        if (start + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, start + length));
+        }
+        word.getChars(0, length, chars, start);
+
+        // Keep the word only if the same letters are not already in the set
+        if (2 * (count + 1) > table.length) {
+            rehash();
+        }
+        int mask = table.length - 1;
+        for (int slot = hash(start, length) & mask;; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (id < 0) {
+                table[slot] = count + 1;
+                break;
+            } else if (sameWord(id, start, length)) {
+                return; // A duplicate; its chars are overwritten by the next word
+            }
+        }
+
+        if (count + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        count++;
+        offsets[count] = start + length;
+    }
+
+    /**
+     * Trims the buffers, groups the ids by length and fills the draw pool.
+     */
+    private void finish() {
+        chars = Arrays.copyOf(chars, offsets[count]);
+        offsets = Arrays.copyOf(offsets, count + 1);
+        table = null; // Only needed while loading
+
+        // Counting sort of the ids by length
+        int longest = 0;
+        for (int id = 0; id < count; id++) {
+            longest = Math.max(longest, length(id));
+        }
+        lengthStart = new int[longest + 2];
+        for (int id = 0; id < count; id++) {
+            lengthStart[length(id) + 1]++;
+        }
+        for (int n = 1; n < lengthStart.length; n++) {
+            lengthStart[n] += lengthStart[n - 1];
+        }
+        byLength = new int[count];
+        int[] next = Arrays.copyOf(lengthStart, lengthStart.length);
+        for (int id = 0; id < count; id++) {
+            byLength[next[length(id)]++] = id;
+        }
+
+        pool = new int[count];
+        for (int id = 0; id < count; id++) {
+            pool[id] = id;
+        }
+        remaining = count;
+    }
+
+    private int hash(int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + chars[i];
+        }
+        h *= 0x9E3779B9; // Spread the bits before masking
+        return h ^ (h >>> 15);
+    }
+
+    private boolean sameWord(int id, int start, int length) {
+        int from = offsets[id];
+        if (offsets[id + 1] - from != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[from + i] != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = hash(offsets[id], length(id)) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+}